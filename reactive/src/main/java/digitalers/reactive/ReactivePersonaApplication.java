@@ -0,0 +1,25 @@
+package digitalers.reactive;
+
+import digitalers.auth.JwtUtil;
+import digitalers.auth.PasswordVerifier;
+import digitalers.auth.SecurityStampRegistry;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Variante no bloqueante de la API de personas: WebFlux (Netty) + R2DBC sobre H2.
+ *
+ * Comparte con la aplicación servlet los DTOs y los componentes de autenticación que no
+ * dependen del stack web (JwtUtil, SecurityStampRegistry y PasswordVerifier); el resto del
+ * paquete digitalers no se escanea.
+ */
+@SpringBootApplication
+@Import({JwtUtil.class, SecurityStampRegistry.class, PasswordVerifier.class})
+public class ReactivePersonaApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactivePersonaApplication.class, args);
+	}
+
+}
@@ -0,0 +1,104 @@
+package digitalers.reactive.auth;
+
+import digitalers.auth.JwtUtil;
+import digitalers.auth.SecurityStampRegistry;
+import digitalers.auth.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Equivalente reactivo de JwtAuthenticationFilter.
+ *
+ * Verifica el token del header Authorization con el mismo JwtUtil (y su cache de tokens
+ * verificados) y deja la autenticación en el contexto de Reactor en lugar del SecurityContextHolder.
+ * A diferencia del filtro servlet, un token inválido o expirado no corta la petición: se
+ * continúa sin autenticar y las reglas de ReactiveSecurityConfig deciden la respuesta.
+ *
+ * No es un bean: WebFlux registraría cualquier WebFilter del contexto fuera de la cadena de
+ * seguridad. Lo crea ReactiveSecurityConfig y lo ubica en la posición AUTHENTICATION.
+ */
+public class JwtReactiveAuthenticationFilter implements WebFilter {
+
+    private final JwtUtil jwtUtil;
+
+    private final ReactiveUserDetailsService userDetailsService;
+
+    private final SecurityStampRegistry securityStampRegistry;
+
+    /**
+     * Modo stateless: las authorities se toman del claim "roles" del token y solo se consulta
+     * la base de datos cuando el stamp del token no coincide con el vigente del usuario.
+     */
+    private final boolean stateless;
+
+    public JwtReactiveAuthenticationFilter(JwtUtil jwtUtil, ReactiveUserDetailsService userDetailsService,
+                                           SecurityStampRegistry securityStampRegistry, boolean stateless) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.securityStampRegistry = securityStampRegistry;
+        this.stateless = stateless;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        final String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        // La verificación es CPU pura (HMAC + JSON) y se cachea: puede hacerse en el event loop
+        final VerifiedToken token;
+        try {
+            token = jwtUtil.verify(authHeader.substring(7));
+        } catch (JwtException | IllegalArgumentException e) {
+            return chain.filter(exchange);
+        }
+        final String username = token.subject();
+        // Un refresh token no sirve como token de acceso
+        if (username == null || token.isRefresh()) {
+            return chain.filter(exchange);
+        }
+
+        Mono<UserDetails> userDetails;
+        if (stateless && !token.roles().isEmpty()
+                && securityStampRegistry.matches(username, token.claims().get(SecurityStampRegistry.CLAIM))) {
+            userDetails = Mono.just(userFromToken(token));
+        } else {
+            userDetails = userDetailsService.findByUsername(username);
+        }
+
+        return userDetails
+                .filter(user -> user.isEnabled() && jwtUtil.validateToken(token, user))
+                .map(user -> new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()))
+                .flatMap(authToken -> chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authToken))
+                        .thenReturn(Boolean.TRUE))
+                .switchIfEmpty(Mono.defer(() -> chain.filter(exchange).thenReturn(Boolean.TRUE)))
+                .then();
+    }
+
+    /**
+     * Construye el principal a partir de los claims del token, sin acceder a la base de datos.
+     */
+    private UserDetails userFromToken(VerifiedToken token) {
+        List<GrantedAuthority> authorities = new ArrayList<>(token.roles().size());
+        for (String role : token.roles()) {
+            authorities.add(new SimpleGrantedAuthority(role));
+        }
+        return new User(token.subject(), "", authorities);
+    }
+}
@@ -0,0 +1,69 @@
+package digitalers.reactive.configuration;
+
+import digitalers.auth.JwtUtil;
+import digitalers.auth.SecurityStampRegistry;
+import digitalers.reactive.auth.JwtReactiveAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * Mismas reglas que SecurityConfig de la aplicación servlet, sobre la cadena de WebFlux.
+ */
+@Configuration
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ReactiveUserDetailsService userDetailsService;
+
+    @Autowired
+    private SecurityStampRegistry securityStampRegistry;
+
+    @Value("${jwt.auth.stateless:false}")
+    private boolean stateless;
+
+    @Bean
+    public static BCryptPasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        JwtReactiveAuthenticationFilter jwtAuthenticationFilter =
+                new JwtReactiveAuthenticationFilter(jwtUtil, userDetailsService, securityStampRegistry, stateless);
+
+        return http.csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                // Stateless: sin WebSession ni SecurityContext guardado entre peticiones
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                // Sin autenticar responde 403, igual que la cadena servlet sin entry point propio
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+                .authorizeExchange(auth -> auth
+                        .pathMatchers(HttpMethod.GET, "/personas").hasRole("ADMIN")
+                        .pathMatchers("/personas/batch").hasRole("ADMIN")
+                        .pathMatchers(HttpMethod.GET, "/personas/{id}").hasAnyRole("USER", "ADMIN")
+                        .pathMatchers(HttpMethod.POST, "/login").permitAll()
+                        .pathMatchers("/actuator/health").permitAll()
+                        .pathMatchers("/actuator/**").hasRole("ADMIN")
+                        .anyExchange().denyAll())
+                .addFilterAt(jwtAuthenticationFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package digitalers.reactive.controller;
+
+import digitalers.auth.JwtUtil;
+import digitalers.auth.PasswordVerifier;
+import digitalers.auth.SecurityStampRegistry;
+import digitalers.dto.Credential;
+import digitalers.reactive.repository.Usuario;
+import digitalers.reactive.repository.UsuarioR2dbcRepository;
+import digitalers.reactive.service.impl.UsuarioReactiveDetailService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/login")
+public class AuthReactiveController {
+
+    @Autowired
+    private UsuarioR2dbcRepository usuarioRepository;
+
+    @Autowired
+    private UsuarioReactiveDetailService userDetailService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private SecurityStampRegistry securityStampRegistry;
+
+    @Autowired
+    private PasswordVerifier passwordVerifier;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Login con una sola consulta (usuario + roles) y BCrypt en el pool acotado de
+     * PasswordVerifier, nunca en el event loop. Si el pool está saturado responde 503.
+     *
+     * Un usuario inexistente o deshabilitado (o sin contraseña) también pasa por BCrypt contra
+     * un hash fijo, para que el tiempo de respuesta no indique si el usuario existe.
+     */
+    @PostMapping
+    public Mono<ResponseEntity<?>> login(@RequestBody Credential credencial){
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        return usuarioRepository.findByUsername(credencial.getUsername())
+                .filter(usuario -> Boolean.TRUE.equals(usuario.enabled()) && credencial.getPassword() != null)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(usuario -> Mono.fromFuture(() -> usuario.isPresent()
+                                ? passwordVerifier.matches(credencial.getPassword(), usuario.get().password())
+                                : passwordVerifier.mismatch(credencial.getPassword()))
+                        .map(valid -> valid
+                                ? record(sample, "success", tokens(usuario.get()))
+                                : record(sample, "unauthorized", unauthorized())))
+                .onErrorResume(RejectedExecutionException.class, e -> Mono.just(record(sample, "rejected",
+                        ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .body("Demasiados logins simultaneos, reintente en unos segundos"))));
+    }
+
+    private ResponseEntity<?> tokens(Usuario usuario) {
+        User userDetails = userDetailService.toUser(usuario);
+        if (userDetails == null) {
+            return unauthorized();
+        }
+
+        String accessToken = jwtUtil.generateAccessToken(userDetails,
+                securityStampRegistry.current(userDetails.getUsername()),
+                claim -> "email".equals(claim) ? usuario.email() : null);
+        String refreshToken = jwtUtil.generateRefreshToken(userDetails);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("accessToken", accessToken);
+        response.put("refreshToken", refreshToken);
+
+        return ResponseEntity.ok(response);
+    }
+
+    private static ResponseEntity<?> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Credenciales invalidas");
+    }
+
+    /**
+     * Registra la latencia del login (percentiles p50/p95/p99) según el resultado.
+     */
+    private ResponseEntity<?> record(Timer.Sample sample, String outcome, ResponseEntity<?> response) {
+        sample.stop(Timer.builder("login.latency")
+                .description("Latencia del login")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
+        return response;
+    }
+}
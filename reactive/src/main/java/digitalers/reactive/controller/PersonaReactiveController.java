@@ -0,0 +1,77 @@
+package digitalers.reactive.controller;
+
+import digitalers.dto.BatchItemResult;
+import digitalers.dto.PersonaDto;
+import digitalers.dto.PersonaView;
+import digitalers.reactive.service.PersonaServicioReactivo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Mismas rutas y respuestas que PersonaController para el CRUD y el alta en lote.
+ */
+@RestController
+@RequestMapping("/personas")
+public class PersonaReactiveController {
+
+    private static final int MAX_BATCH = 10000;
+
+    @Autowired
+    private PersonaServicioReactivo personaServicio;
+
+    /**
+     * Lista paginada de personas. Sin "page" usa paginación por cursor (header X-Next-Cursor);
+     * con "page" usa paginación por offset (header X-Next-Page).
+     */
+    @GetMapping
+    public Mono<ResponseEntity<List<PersonaView>>> getPersonas(@RequestParam(name = "cursor", required = false) String cursor,
+                                                               @RequestParam(name = "page", required = false) Integer page,
+                                                               @RequestParam(name = "limit", defaultValue = "50") int limit){
+        return personaServicio.todasLasPersonas(cursor, page, limit);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<PersonaView>> getPersona(@PathVariable(name = "id") Long personaId){
+        return personaServicio.personaPorId(personaId)
+                .map(persona -> ResponseEntity.ok().body(persona))
+                .defaultIfEmpty(ResponseEntity.ok().build());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<PersonaView>> crearPersona(@RequestBody PersonaDto dto){
+        return personaServicio.crearPersonas(dto).map(persona -> ResponseEntity.ok().body(persona));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<PersonaView>> actualizar(@RequestBody PersonaDto dto, @PathVariable(name = "id") Long idPersona){
+        return personaServicio.actualizarPersona(dto, idPersona).map(persona -> ResponseEntity.ok().body(persona));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<String>> eliminar(@PathVariable(name = "id") Long idPersona){
+        return personaServicio.eliminarPorId(idPersona)
+                .thenReturn(ResponseEntity.ok().body("Persona con id " + idPersona + " eliminada con exito."));
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<?>> crearEnLote(@RequestBody List<PersonaDto> dtos){
+        if (dtos.size() > MAX_BATCH) {
+            return Mono.just(ResponseEntity.badRequest().body("El lote no puede superar " + MAX_BATCH + " elementos"));
+        }
+        return personaServicio.crearPersonasEnLote(dtos)
+                .collectList()
+                .map(resultados -> ResponseEntity.ok().body(resultados));
+    }
+}
@@ -0,0 +1,113 @@
+package digitalers.reactive.repository;
+
+import digitalers.dto.PersonaDto;
+import digitalers.dto.PersonaView;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Acceso a PERSONAS con R2DBC (DatabaseClient). Las lecturas son las mismas que las de
+ * PersonaRepository en la aplicación servlet: un único JOIN con DIRECCIONES proyectado a
+ * {@link PersonaView}.
+ */
+@Repository
+public class PersonaR2dbcRepository {
+
+    private static final String PERSONA_VIEW = "SELECT p.PERSONA_ID, p.NOMBRE, p.EDAD, d.DIRECCION_ID, d.CALLE, d.BARRIO, "
+            + "d.ALTURA, p.TELEFONO, p.EMAIL, p.VERSION FROM PERSONAS p JOIN DIRECCIONES d ON d.DIRECCION_ID = p.DIRECCION_ID ";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    // Paginación keyset: siguiente página a partir del último PERSONA_ID visto (sin OFFSET ni COUNT)
+    public Flux<PersonaView> findViewsAfter(long afterId, int limit) {
+        return databaseClient.sql(PERSONA_VIEW + "WHERE p.PERSONA_ID > :afterId ORDER BY p.PERSONA_ID LIMIT :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(PersonaR2dbcRepository::toView)
+                .all();
+    }
+
+    // Paginación por offset; se pide una fila de más para saber si hay página siguiente
+    public Flux<PersonaView> findViewPage(int page, int size, int limit) {
+        return databaseClient.sql(PERSONA_VIEW + "ORDER BY p.PERSONA_ID LIMIT :limit OFFSET :offset")
+                .bind("limit", limit)
+                .bind("offset", (long) page * size)
+                .map(PersonaR2dbcRepository::toView)
+                .all();
+    }
+
+    public Mono<PersonaView> findViewById(long id) {
+        return databaseClient.sql(PERSONA_VIEW + "WHERE p.PERSONA_ID = :id")
+                .bind("id", id)
+                .map(PersonaR2dbcRepository::toView)
+                .one();
+    }
+
+    /**
+     * Inserta una persona tomando el id de PERSONAS_SEQ. La secuencia es la del esquema de
+     * Hibernate (INCREMENT BY 50); sin el optimizador pooled cada alta usa el valor tal cual,
+     * por lo que los ids avanzan de a 50.
+     *
+     * @return Id generado
+     */
+    public Mono<Long> insert(PersonaDto p) {
+        return bindCampos(databaseClient.sql("INSERT INTO PERSONAS (PERSONA_ID, NOMBRE, EDAD, DIRECCION_ID, TELEFONO, EMAIL, VERSION) "
+                        + "VALUES (NEXT VALUE FOR PERSONAS_SEQ, :nombre, :edad, :direccionId, :telefono, :email, 0)"), p)
+                .filter(statement -> statement.returnGeneratedValues("PERSONA_ID"))
+                .map(row -> row.get("PERSONA_ID", Long.class))
+                .one();
+    }
+
+    /**
+     * Reemplaza los campos de la persona e incrementa su versión.
+     *
+     * @return Cantidad de filas modificadas (0 si no existe)
+     */
+    public Mono<Long> update(long id, PersonaDto p) {
+        return bindCampos(databaseClient.sql("UPDATE PERSONAS SET NOMBRE = :nombre, EDAD = :edad, DIRECCION_ID = :direccionId, "
+                        + "TELEFONO = :telefono, EMAIL = :email, VERSION = VERSION + 1 WHERE PERSONA_ID = :id"), p)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(long id) {
+        return databaseClient.sql("DELETE FROM PERSONAS WHERE PERSONA_ID = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindCampos(DatabaseClient.GenericExecuteSpec spec, PersonaDto p) {
+        spec = bind(spec, "nombre", p.nombre(), String.class);
+        spec = bind(spec, "edad", p.edad(), Integer.class);
+        spec = bind(spec, "direccionId", p.direccionId(), Long.class);
+        spec = bind(spec, "telefono", p.telefono(), String.class);
+        return bind(spec, "email", p.email(), String.class);
+    }
+
+    // R2DBC no acepta bind(null): los valores nulos se declaran con su tipo
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name, Object value,
+                                                          Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static PersonaView toView(Readable row) {
+        return new PersonaView(
+                row.get("PERSONA_ID", Long.class),
+                row.get("NOMBRE", String.class),
+                row.get("EDAD", Integer.class),
+                row.get("DIRECCION_ID", Long.class),
+                row.get("CALLE", String.class),
+                row.get("BARRIO", String.class),
+                row.get("ALTURA", String.class),
+                row.get("TELEFONO", String.class),
+                row.get("EMAIL", String.class),
+                row.get("VERSION", Long.class));
+    }
+}
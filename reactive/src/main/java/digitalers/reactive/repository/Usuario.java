@@ -0,0 +1,11 @@
+package digitalers.reactive.repository;
+
+import java.util.List;
+
+/**
+ * Usuario con sus roles, leído en una sola consulta (users LEFT JOIN authorities).
+ *
+ * @param roles Authorities del usuario (ROLE_USER, ROLE_ADMIN, ...)
+ */
+public record Usuario(Long id, String username, String password, Boolean enabled, String email, List<String> roles) {
+}
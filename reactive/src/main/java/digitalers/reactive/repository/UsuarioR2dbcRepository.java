@@ -0,0 +1,51 @@
+package digitalers.reactive.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class UsuarioR2dbcRepository {
+
+    private static final String USUARIO_CON_ROLES = "SELECT u.id, u.username, u.password, u.enabled, u.email, a.authority "
+            + "FROM users u LEFT JOIN authorities a ON a.user_id = u.id WHERE u.username = :username";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    /**
+     * Busca el usuario y sus roles con un único JOIN (una fila por rol).
+     *
+     * @param username Usuario
+     * @return Usuario con sus roles, vacío si no existe
+     */
+    public Mono<Usuario> findByUsername(String username) {
+        return databaseClient.sql(USUARIO_CON_ROLES)
+                .bind("username", username)
+                .map(row -> new Object[]{
+                        row.get("id", Long.class),
+                        row.get("username", String.class),
+                        row.get("password", String.class),
+                        row.get("enabled", Boolean.class),
+                        row.get("email", String.class),
+                        row.get("authority", String.class)})
+                .all()
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(rows -> {
+                    Object[] first = rows.get(0);
+                    List<String> roles = new ArrayList<>(rows.size());
+                    for (Object[] row : rows) {
+                        if (row[5] != null) {
+                            roles.add((String) row[5]);
+                        }
+                    }
+                    return new Usuario((Long) first[0], (String) first[1], (String) first[2], (Boolean) first[3],
+                            (String) first[4], List.copyOf(roles));
+                });
+    }
+}
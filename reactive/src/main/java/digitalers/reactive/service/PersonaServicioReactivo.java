@@ -0,0 +1,28 @@
+package digitalers.reactive.service;
+
+import digitalers.dto.BatchItemResult;
+import digitalers.dto.PersonaDto;
+import digitalers.dto.PersonaView;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Versión no bloqueante de PersonaServicio (CRUD y alta en lote).
+ */
+public interface PersonaServicioReactivo {
+
+    Mono<ResponseEntity<List<PersonaView>>> todasLasPersonas(String cursor, Integer page, int limit);
+
+    Mono<PersonaView> personaPorId(Long id);
+
+    Mono<PersonaView> crearPersonas(PersonaDto p);
+
+    Mono<Void> eliminarPorId(Long id);
+
+    Mono<PersonaView> actualizarPersona(PersonaDto p, Long id);
+
+    Flux<BatchItemResult> crearPersonasEnLote(List<PersonaDto> personas);
+}
@@ -0,0 +1,138 @@
+package digitalers.reactive.service.impl;
+
+import digitalers.dto.BatchItemResult;
+import digitalers.dto.PersonaDto;
+import digitalers.dto.PersonaView;
+import digitalers.reactive.repository.PersonaR2dbcRepository;
+import digitalers.reactive.service.PersonaServicioReactivo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+@Slf4j
+@Service
+public class PersonaServicioReactivoImpl implements PersonaServicioReactivo {
+
+    /**
+     * Mismos headers de paginación que la aplicación servlet (PersonaServiceImpl).
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final String NEXT_PAGE_HEADER = "X-Next-Page";
+
+    private static final int MAX_LIMIT = 500;
+
+    /**
+     * Altas simultáneas de un lote; el pool de R2DBC limita igualmente las conexiones.
+     */
+    private static final int LOTE_CONCURRENCIA = 8;
+
+    @Autowired
+    private PersonaR2dbcRepository personaRepository;
+
+    @Override
+    public Mono<ResponseEntity<List<PersonaView>>> todasLasPersonas(String cursor, Integer page, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        if (page != null) {
+            int pagina = Math.max(page, 0);
+            return personaRepository.findViewPage(pagina, size, size + 1)
+                    .collectList()
+                    .map(personas -> pagina(personas, size, NEXT_PAGE_HEADER, String.valueOf(pagina + 1), pagina == 0));
+        }
+
+        Long afterId = 0L;
+        if (cursor != null && (afterId = decodeCursor(cursor)) == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return personaRepository.findViewsAfter(afterId, size + 1)
+                .collectList()
+                .map(personas -> pagina(personas, size, NEXT_CURSOR_HEADER,
+                        personas.size() > size ? encodeCursor(personas.get(size - 1).id()) : null, true));
+    }
+
+    /**
+     * Arma la respuesta de una página leída con una fila de más: si la fila extra existe se
+     * descarta y se informa la página siguiente en el header.
+     */
+    private static ResponseEntity<List<PersonaView>> pagina(List<PersonaView> personas, int size, String header,
+                                                            String siguiente, boolean primera) {
+        if (personas.isEmpty()) {
+            return primera ? ResponseEntity.notFound().build() : ResponseEntity.ok(personas);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (personas.size() > size) {
+            personas = personas.subList(0, size);
+            response.header(header, siguiente);
+        }
+        return response.body(personas);
+    }
+
+    private static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("p:" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeCursor(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return value.startsWith("p:") ? Long.valueOf(value.substring(2)) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Mono<PersonaView> personaPorId(Long id) {
+        return personaRepository.findViewById(id);
+    }
+
+    @Override
+    public Mono<PersonaView> crearPersonas(PersonaDto p) {
+        return personaRepository.insert(p)
+                .flatMap(personaRepository::findViewById)
+                .onErrorMap(DataIntegrityViolationException.class, PersonaServicioReactivoImpl::conflicto);
+    }
+
+    @Override
+    public Mono<Void> eliminarPorId(Long id) {
+        return personaRepository.deleteById(id).then();
+    }
+
+    @Override
+    public Mono<PersonaView> actualizarPersona(PersonaDto p, Long id) {
+        return personaRepository.update(id, p)
+                .flatMap(filas -> filas == 0
+                        ? Mono.<PersonaView>error(new ResponseStatusException(HttpStatus.NOT_FOUND, "La persona no existe"))
+                        : personaRepository.findViewById(id))
+                .onErrorMap(DataIntegrityViolationException.class, PersonaServicioReactivoImpl::conflicto);
+    }
+
+    /**
+     * Cada elemento se inserta por separado: un error (dirección inexistente, email o teléfono
+     * repetido) queda en su resultado sin afectar al resto. El orden de la respuesta es el del pedido.
+     */
+    @Override
+    public Flux<BatchItemResult> crearPersonasEnLote(List<PersonaDto> personas) {
+        return Flux.range(0, personas.size())
+                .flatMapSequential(i -> personaRepository.insert(personas.get(i))
+                        .map(id -> BatchItemResult.ok(i, id))
+                        .onErrorResume(DataIntegrityViolationException.class,
+                                e -> Mono.just(BatchItemResult.error(i, null, "Violacion de restriccion de datos"))), LOTE_CONCURRENCIA);
+    }
+
+    private static ResponseStatusException conflicto(DataIntegrityViolationException e) {
+        log.debug("Violacion de restriccion al guardar persona: {}", e.getMessage());
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Direccion inexistente o email/telefono repetido");
+    }
+}
@@ -0,0 +1,51 @@
+package digitalers.reactive.service.impl;
+
+import digitalers.reactive.repository.Usuario;
+import digitalers.reactive.repository.UsuarioR2dbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Equivalente reactivo de UserDetailServiceImpl: lo usa el filtro JWT cuando no puede
+ * confiar en los roles del token.
+ */
+@Slf4j
+@Service
+public class UsuarioReactiveDetailService implements ReactiveUserDetailsService {
+
+    @Autowired
+    private UsuarioR2dbcRepository usuarioRepository;
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return usuarioRepository.findByUsername(username).flatMap(usuario -> Mono.justOrEmpty(toUser(usuario)));
+    }
+
+    /**
+     * @return User de Spring Security, null si el usuario no tiene roles asignados
+     */
+    public User toUser(Usuario usuario) {
+        List<GrantedAuthority> authorities = new ArrayList<>(usuario.roles().size());
+        for (String role : usuario.roles()) {
+            authorities.add(new SimpleGrantedAuthority(role));
+        }
+
+        if (authorities.isEmpty()) {
+            log.error("Error de login: usuario {} No tiene roles asignados", usuario.username());
+            return null;
+        }
+
+        return new User(usuario.username(), usuario.password(), Boolean.TRUE.equals(usuario.enabled()), true, true, true,
+                authorities);
+    }
+}
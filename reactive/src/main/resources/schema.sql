@@ -0,0 +1,41 @@
+-- Mismo esquema que genera Hibernate en la aplicacion servlet (ver digitalers.entity)
+CREATE SEQUENCE IF NOT EXISTS DIRECCIONES_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS PERSONAS_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS DIRECCIONES (
+    DIRECCION_ID BIGINT PRIMARY KEY,
+    CALLE VARCHAR(255),
+    BARRIO VARCHAR(255),
+    ALTURA VARCHAR(255)
+);
+CREATE INDEX IF NOT EXISTS IDX_DIRECCIONES_BARRIO_CALLE ON DIRECCIONES (BARRIO, CALLE);
+CREATE INDEX IF NOT EXISTS IDX_DIRECCIONES_CALLE ON DIRECCIONES (CALLE);
+
+CREATE TABLE IF NOT EXISTS PERSONAS (
+    PERSONA_ID BIGINT PRIMARY KEY,
+    NOMBRE VARCHAR(255),
+    EDAD INTEGER,
+    DIRECCION_ID BIGINT NOT NULL REFERENCES DIRECCIONES (DIRECCION_ID),
+    TELEFONO VARCHAR(255) UNIQUE,
+    EMAIL VARCHAR(255) UNIQUE,
+    VERSION BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS IDX_PERSONAS_NOMBRE_EDAD ON PERSONAS (NOMBRE, EDAD);
+CREATE INDEX IF NOT EXISTS IDX_PERSONAS_EDAD ON PERSONAS (EDAD);
+CREATE INDEX IF NOT EXISTS IDX_PERSONAS_DIRECCION ON PERSONAS (DIRECCION_ID);
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(30) UNIQUE,
+    password VARCHAR(60),
+    enabled BOOLEAN,
+    email VARCHAR(255),
+    imagen VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS authorities (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT REFERENCES users (id),
+    authority VARCHAR(255),
+    UNIQUE (user_id, authority)
+);
@@ -0,0 +1,86 @@
+package digitalers.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recorre la API reactiva de punta a punta: login, rutas protegidas por JWT y paginación.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+class ReactivePersonaApplicationTests {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void listadoRequiereTokenDeAdmin() {
+		webTestClient.get().uri("/personas").exchange().expectStatus().isForbidden();
+
+		webTestClient.get().uri("/personas?limit=1")
+				.header("Authorization", "Bearer " + login("user"))
+				.exchange()
+				.expectStatus().isForbidden();
+
+		webTestClient.get().uri("/personas?limit=1")
+				.header("Authorization", "Bearer " + login("admin"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$[0].nombre").isEqualTo("nestor")
+				.jsonPath("$[0].direccion.calle").isEqualTo("Calle siempre viva");
+	}
+
+	@Test
+	void loteInformaErroresPorElemento() {
+		String token = login("admin");
+
+		webTestClient.post().uri("/personas/batch")
+				.header("Authorization", "Bearer " + token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue("[{\"nombre\":\"lote\",\"edad\":20,\"direccionId\":1,\"telefono\":\"lote-1\",\"email\":\"lote@test.com\"},"
+						+ "{\"nombre\":\"sin direccion\",\"edad\":20,\"direccionId\":999,\"telefono\":\"lote-2\",\"email\":\"lote2@test.com\"}]")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$[0].status").isEqualTo("OK")
+				.jsonPath("$[1].status").isEqualTo("ERROR");
+
+		webTestClient.get().uri("/personas?limit=1")
+				.header("Authorization", "Bearer " + token)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().exists("X-Next-Cursor");
+	}
+
+	@Test
+	void loginConContrasenaIncorrecta() {
+		webTestClient.post().uri("/login")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("username", "admin", "password", "incorrecta"))
+				.exchange()
+				.expectStatus().isUnauthorized();
+	}
+
+	private String login(String username) {
+		Map<?, ?> body = webTestClient.post().uri("/login")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("username", username, "password", "123"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(Map.class)
+				.returnResult()
+				.getResponseBody();
+		assertThat(body).isNotNull();
+		assertThat(body.get("accessToken")).isInstanceOf(String.class);
+		return (String) body.get("accessToken");
+	}
+}
@@ -1,20 +1,33 @@
 package digitalers.auth;
 
 import digitalers.service.UserDetailService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Filtro de autenticación JWT que intercepta todas las peticiones HTTP.
@@ -25,19 +38,76 @@ import java.io.IOException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    /**
+     * Rutas públicas (permitAll en SecurityConfig). El filtro no se ejecuta para ellas.
+     */
+    public static final String[] PUBLIC_PATHS = {"/public/**", "/swagger-ui/**", "/v3/api-docs/**", "/api-docs/**"};
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
     @Autowired
     private JwtUtil jwtUtil;
 
     @Autowired
     private UserDetailService userDetailsService;
 
+    @Autowired
+    private SecurityStampRegistry securityStampRegistry;
+
     /**
-     * Método principal que procesa cada petición HTTP.
+     * Modo stateless: las authorities se toman del claim "roles" del token y solo se consulta
+     * la base de datos cuando el stamp del token no coincide con el vigente del usuario.
+     * Con false se carga el usuario desde la base de datos en cada petición.
+     */
+    @Value("${jwt.auth.stateless:false}")
+    private boolean stateless;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Tiempo propio del filtro (sin el resto de la cadena) por resultado:
+     * - none: sin header Bearer
+     * - token: autenticado con los roles del token
+     * - database: autenticado cargando el usuario con UserDetailService
+     * - rejected: token válido que no corresponde al usuario o ya está autenticado
+     * - invalid: el token o la carga del usuario lanzaron una excepción
+     */
+    private final Map<String, Timer> timers = new HashMap<>();
+
+    @PostConstruct
+    void init() {
+        for (String result : List.of("none", "token", "database", "rejected", "invalid")) {
+            timers.put(result, Timer.builder("jwt.filter")
+                    .description("Tiempo de autenticación JWT por petición")
+                    .tag("result", result)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Evita ejecutar el filtro en las rutas públicas y en el login.
      *
-     * Flujo:
-     * 1. Extrae el token JWT del header Authorization
-     * 2. Valida el token
-     * 3. Autentica al usuario en el SecurityContext de Spring Security
+     * @param request Petición HTTP entrante
+     * @return true si la petición no necesita autenticación JWT
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if ("POST".equals(request.getMethod()) && ("/login".equals(path) || "/login/refresh".equals(path))) {
+            return true;
+        }
+        for (String pattern : PUBLIC_PATHS) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Método principal que procesa cada petición HTTP: autentica con el token (si lo hay),
+     * registra el tiempo en la métrica jwt.filter y continúa con la cadena.
      *
      * @param request Petición HTTP entrante
      * @param response Respuesta HTTP
@@ -47,55 +117,106 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
+        final long start = System.nanoTime();
+        String result = "invalid";
+        try {
+            result = authenticate(request);
+        } finally {
+            timers.get(result).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        // Continuar con la cadena de filtros (SIEMPRE debe ejecutarse)
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Flujo:
+     * 1. Extrae el token JWT del header Authorization
+     * 2. Valida el token
+     * 3. Autentica al usuario en el SecurityContext de Spring Security
+     *
+     * @param request Petición HTTP entrante
+     * @return Resultado para la métrica jwt.filter
+     */
+    private String authenticate(HttpServletRequest request) {
+
         // Obtener el header Authorization de la petición
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final VerifiedToken token;
         final String username;
 
         // Verificar si existe el header y si tiene el formato correcto "Bearer {token}"
         // Si no cumple, continuar con la cadena de filtros sin autenticar
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
-            return;
+            return "none";
         }
 
         // Extraer el token JWT (eliminar el prefijo "Bearer " - 7 caracteres)
         jwt = authHeader.substring(7);
 
-        // Extraer el username desde el token JWT
-        username = jwtUtil.extractUsername(jwt);
+        // Verificar el token una sola vez (firma + expiración); el resultado queda en cache
+        // y de él se leen el username, la expiración y los roles
+        token = jwtUtil.verify(jwt);
+        username = token.subject();
 
         // Verificar si:
         // 1. Se extrajo correctamente el username del token
-        // 2. El usuario NO está ya autenticado en el contexto de seguridad
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-            // Cargar los detalles del usuario desde la base de datos
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-
-            // Validar que el token sea válido (firma correcta, no expirado, pertenece al usuario)
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-
-                // Crear el objeto de autenticación de Spring Security
-                // Parámetros: principal (usuario), credentials (null porque usamos JWT), authorities (roles/permisos)
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-
-                // Agregar detalles adicionales de la petición HTTP (IP, sesión, etc.)
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-
-                // Establecer la autenticación en el SecurityContext
-                // A partir de aquí, Spring Security reconoce al usuario como autenticado
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+        // 2. No es un refresh token (solo sirve en /login/refresh)
+        // 3. El usuario NO está ya autenticado en el contexto de seguridad
+        if (username == null || token.isRefresh() || SecurityContextHolder.getContext().getAuthentication() != null) {
+            return "rejected";
         }
 
-        // Continuar con la cadena de filtros (SIEMPRE debe ejecutarse)
-        filterChain.doFilter(request, response);
+        // En modo stateless con stamp vigente se arma el usuario con los roles del token,
+        // si no se cargan los detalles del usuario desde la base de datos
+        UserDetails userDetails;
+        String result;
+        if (stateless && !token.roles().isEmpty()
+                && securityStampRegistry.matches(username, token.claims().get(SecurityStampRegistry.CLAIM))) {
+            userDetails = userFromToken(token);
+            result = "token";
+        } else {
+            userDetails = this.userDetailsService.loadUserByUsername(username);
+            result = "database";
+        }
+
+        // Validar que el token sea válido (firma correcta, no expirado, pertenece al usuario)
+        if (!jwtUtil.validateToken(token, userDetails)) {
+            return "rejected";
+        }
+
+        // Crear el objeto de autenticación de Spring Security
+        // Parámetros: principal (usuario), credentials (null porque usamos JWT), authorities (roles/permisos)
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+
+        // Agregar detalles adicionales de la petición HTTP (IP, sesión, etc.)
+        authToken.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request)
+        );
+
+        // Establecer la autenticación en el SecurityContext
+        // A partir de aquí, Spring Security reconoce al usuario como autenticado
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        return result;
+    }
+
+    /**
+     * Construye el principal a partir de los claims del token, sin acceder a la base de datos.
+     * La contraseña queda vacía porque la autenticación ya la garantiza la firma del token.
+     *
+     * @param token Token verificado
+     * @return UserDetails con el username y las authorities del token
+     */
+    private UserDetails userFromToken(VerifiedToken token) {
+        List<GrantedAuthority> authorities = new ArrayList<>(token.roles().size());
+        for (String role : token.roles()) {
+            authorities.add(new SimpleGrantedAuthority(role));
+        }
+        return new User(token.subject(), "", authorities);
     }
-}
\ No newline at end of file
+}
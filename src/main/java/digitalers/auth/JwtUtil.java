@@ -1,16 +1,29 @@
 package digitalers.auth;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -42,16 +55,145 @@ public class JwtUtil {
     /**
      * Tiempo de validez del token de refresco: ~1.3 horas (4600000 ms)
      */
-    private static final long REFRESH_TOKEN_VALIDITY = 4600000;
+    public static final long REFRESH_TOKEN_VALIDITY = 4600000;
 
     /**
-     * Genera una clave criptográfica SecretKey a partir de la clave secreta.
-     * Convierte el String SECRET_KEY en bytes y crea una clave HMAC-SHA256.
+     * Claim con el tipo de token. Solo los refresh tokens lo llevan (valor {@link #REFRESH_TYPE}).
+     */
+    public static final String TYPE_CLAIM = "typ";
+    public static final String REFRESH_TYPE = "refresh";
+
+    /**
+     * Claim con la familia del refresh token: todos los tokens obtenidos por rotación a partir
+     * del mismo login comparten familia, así una reutilización puede revocarlos juntos.
+     */
+    public static final String FAMILY_CLAIM = "fam";
+
+    /**
+     * Claim compacto de roles: máscara de bits según {@link #roleCodes}.
+     */
+    public static final String ROLES_CLAIM = "rl";
+
+    /**
+     * Claim con la lista de authorities como texto. Lo usan los tokens anteriores al claim
+     * compacto y los roles que no están en el registro.
+     */
+    public static final String LEGACY_ROLES_CLAIM = "roles";
+
+    /**
+     * Roles conocidos, en orden de bit. Solo se agregan al final: cambiar el orden cambia el
+     * significado de los tokens ya emitidos.
+     */
+    @Value("${jwt.roles:ROLE_USER,ROLE_ADMIN}")
+    private String[] roles;
+
+    /**
+     * Claims opcionales del token de acceso (ej. "email"). Por defecto ninguno: cada claim
+     * viaja en el header Authorization de todas las peticiones.
+     */
+    @Value("${jwt.claims.optional:}")
+    private String[] optionalClaims;
+
+    private RoleCodes roleCodes;
+
+    /**
+     * Cantidad máxima de tokens verificados que se mantienen en memoria.
+     * Con 0 se deshabilita el cache y cada llamada vuelve a verificar la firma.
+     */
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    /**
+     * Clave HMAC-SHA256 y parser construidos una sola vez al iniciar el componente.
+     * Ambos son inmutables y thread-safe, por lo que se reutilizan en todas las peticiones.
+     */
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    private VerifiedTokenCache verifiedTokens;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Tiempo de verify() según el resultado: "cached" (sin HMAC), "parsed" (firma verificada
+     * y claims parseados) o "invalid" (firma inválida, token expirado o mal formado).
+     */
+    private Timer verifyCached;
+    private Timer verifyParsed;
+    private Timer verifyInvalid;
+    private Timer sign;
+
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)  // Verifica que la firma sea válida
+                .build();
+        this.verifiedTokens = new VerifiedTokenCache(cacheMaxSize);
+        this.roleCodes = new RoleCodes(roles);
+        this.verifyCached = verifyTimer("cached");
+        this.verifyParsed = verifyTimer("parsed");
+        this.verifyInvalid = verifyTimer("invalid");
+        this.sign = Timer.builder("jwt.sign")
+                .description("Generación y firma de tokens")
+                .register(meterRegistry);
+    }
+
+    private Timer verifyTimer(String result) {
+        return Timer.builder("jwt.verify")
+                .description("Verificación de tokens (firma, expiración y claims)")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Devuelve la clave criptográfica SecretKey generada a partir de la clave secreta.
      *
      * @return SecretKey para firmar y verificar tokens
      */
     private SecretKey getSigningSecretKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+        return signingKey;
+    }
+
+    /**
+     * Verifica el token JWT (firma y expiración) una única vez y devuelve sus datos.
+     *
+     * El resultado se guarda en un cache LRU indexado por el digest SHA-256 del token,
+     * así las siguientes peticiones con el mismo token no vuelven a calcular el HMAC
+     * ni a parsear el JSON de los claims. La entrada se descarta al llegar al "exp".
+     *
+     * @param token Token JWT a verificar
+     * @return Datos verificados del token
+     * @throws io.jsonwebtoken.JwtException si la firma es inválida o el token expiró
+     */
+    public VerifiedToken verify(String token) {
+        final long start = System.nanoTime();
+        final long now = System.currentTimeMillis();
+        final String key = VerifiedTokenCache.digest(token);
+
+        VerifiedToken cached = verifiedTokens.get(key, now);
+        if (cached != null) {
+            verifyCached.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
+        }
+
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (RuntimeException e) {
+            verifyInvalid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                claims.getExpiration(),
+                extractRoles(claims),
+                claims
+        );
+        verifiedTokens.put(key, verified);
+        verifyParsed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return verified;
     }
 
     /**
@@ -88,7 +230,7 @@ public class JwtUtil {
      * @return Valor del claim solicitado
      */
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verify(token).claims();
         return claimsResolver.apply(claims);
     }
 
@@ -104,13 +246,38 @@ public class JwtUtil {
      * @return Claims objeto que contiene toda la información del token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningSecretKey())  // Verifica que la firma sea válida
-                .build()
+        return parser
                 .parseSignedClaims(token)           // Parsea el token firmado
                 .getPayload();                      // Obtiene el contenido (claims)
     }
 
+    /**
+     * Obtiene las authorities del claim compacto {@link #ROLES_CLAIM} y del claim "roles".
+     * Este último acepta tanto una lista de Strings como la lista de entidades Role serializadas
+     * por Jackson (mapas con la clave "authority"), como la emitían los tokens anteriores.
+     *
+     * @param claims Claims ya verificados
+     * @return Lista inmutable de authorities, vacía si el token no trae roles
+     */
+    private List<String> extractRoles(Claims claims) {
+        Object codes = claims.get(ROLES_CLAIM);
+        List<String> coded = codes instanceof Number mask ? roleCodes.decode(mask.intValue()) : Collections.emptyList();
+        Object roles = claims.get(LEGACY_ROLES_CLAIM);
+        if (!(roles instanceof Collection<?> values)) {
+            return coded;
+        }
+        List<String> authorities = new ArrayList<>(coded.size() + values.size());
+        authorities.addAll(coded);
+        for (Object value : values) {
+            if (value instanceof Map<?, ?> role && role.get("authority") != null) {
+                authorities.add(role.get("authority").toString());
+            } else if (value instanceof String authority) {
+                authorities.add(authority);
+            }
+        }
+        return Collections.unmodifiableList(authorities);
+    }
+
     /**
      * Verifica si el token ha expirado.
      * Compara la fecha de expiración del token con la fecha actual.
@@ -122,6 +289,58 @@ public class JwtUtil {
         return extractExpiration(token).before(new Date());
     }
 
+    /**
+     * Genera el token de acceso del login con claims compactos:
+     * - "sub": username (no se repite en otro claim)
+     * - "rl": máscara de roles según "jwt.roles"; los roles no registrados van en "roles"
+     * - "stamp": security stamp vigente del usuario
+     * - los claims opcionales configurados en "jwt.claims.optional", si tienen valor
+     *
+     * Los claims se escriben directo en el builder, sin mapas intermedios.
+     *
+     * @param userDetails Usuario autenticado (username y authorities)
+     * @param stamp Security stamp vigente del usuario
+     * @param optionalClaimValues Valor de cada claim opcional por nombre (null = no se incluye)
+     * @return Token JWT firmado como String
+     */
+    public String generateAccessToken(UserDetails userDetails, long stamp, Function<String, Object> optionalClaimValues) {
+        final long start = System.nanoTime();
+        final long now = System.currentTimeMillis();
+
+        int mask = 0;
+        List<String> unregistered = null;
+        for (GrantedAuthority authority : userDetails.getAuthorities()) {
+            int bit = roleCodes.bit(authority.getAuthority());
+            if (bit >= 0) {
+                mask |= 1 << bit;
+            } else {
+                if (unregistered == null) {
+                    unregistered = new ArrayList<>();
+                }
+                unregistered.add(authority.getAuthority());
+            }
+        }
+
+        JwtBuilder builder = Jwts.builder()
+                .subject(userDetails.getUsername())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + ACCESS_TOKEN_VALIDITY))
+                .claim(ROLES_CLAIM, mask)
+                .claim(SecurityStampRegistry.CLAIM, stamp);
+        if (unregistered != null) {
+            builder.claim(LEGACY_ROLES_CLAIM, unregistered);
+        }
+        for (String name : optionalClaims) {
+            Object value = optionalClaimValues.apply(name);
+            if (value != null) {
+                builder.claim(name, value);
+            }
+        }
+        String token = builder.signWith(signingKey).compact();
+        sign.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
+    }
+
     /**
      * Genera un token de acceso JWT con información adicional.
      *
@@ -135,14 +354,29 @@ public class JwtUtil {
     }
 
     /**
-     * Genera un token de refresco (refresh token).
-     * No incluye claims adicionales, solo el username y la fecha de expiración.
+     * Genera un token de refresco (refresh token) de una familia nueva.
      *
      * @param userDetails Información del usuario autenticado
      * @return Refresh token JWT firmado como String
      */
     public String generateRefreshToken(UserDetails userDetails) {
+        return generateRefreshToken(userDetails, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Genera un token de refresco dentro de una familia de rotación.
+     * No incluye roles ni datos del usuario: solo el username, un id único ("jti"),
+     * el tipo {@link #REFRESH_TYPE} y la familia.
+     *
+     * @param userDetails Información del usuario autenticado
+     * @param family Familia del token (la del login original)
+     * @return Refresh token JWT firmado como String
+     */
+    public String generateRefreshToken(UserDetails userDetails, String family) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(Claims.ID, UUID.randomUUID().toString());
+        claims.put(TYPE_CLAIM, REFRESH_TYPE);
+        claims.put(FAMILY_CLAIM, family);
         return createToken(claims, userDetails.getUsername(), REFRESH_TOKEN_VALIDITY);
     }
 
@@ -162,13 +396,16 @@ public class JwtUtil {
      * @return Token JWT completo y firmado
      */
     private String createToken(Map<String, Object> claims, String subject, long validity) {
-        return Jwts.builder()
+        final long start = System.nanoTime();
+        String token = Jwts.builder()
                 .claims(claims)                                                      // Agrega claims personalizados
                 .subject(subject)                                                    // Username del usuario
                 .issuedAt(new Date(System.currentTimeMillis()))                     // Fecha de emisión
                 .expiration(new Date(System.currentTimeMillis() + validity))        // Fecha de expiración
                 .signWith(getSigningSecretKey())                                    // Firma con algoritmo HS256
                 .compact();                                                          // Genera el token final
+        sign.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
     }
 
     /**
@@ -183,7 +420,18 @@ public class JwtUtil {
      * @return true si el token es válido, false en caso contrario
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(verify(token), userDetails);
+    }
+
+    /**
+     * Igual que {@link #validateToken(String, UserDetails)} pero sobre un token ya verificado,
+     * sin volver a parsearlo.
+     *
+     * @param token Token previamente verificado con {@link #verify(String)}
+     * @param userDetails Datos del usuario para comparar
+     * @return true si el token es válido, false en caso contrario
+     */
+    public Boolean validateToken(VerifiedToken token, UserDetails userDetails) {
+        return (token.subject().equals(userDetails.getUsername()) && !token.isExpired(System.currentTimeMillis()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package digitalers.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verificación de contraseñas (BCrypt) en un pool de hilos propio y acotado.
+ *
+ * BCrypt es deliberadamente costoso: si se ejecuta en los hilos de Tomcat, una ráfaga de
+ * logins los ocupa a todos y deja sin atender al resto de la API. Este componente lo aísla:
+ *
+ * - "login.bcrypt.threads" hilos como máximo calculando hashes.
+ * - Una cola de "login.bcrypt.queue-capacity" pedidos en espera.
+ * - Con el pool y la cola llenos el pedido se rechaza de inmediato
+ *   ({@link RejectedExecutionException}) en lugar de encolarse sin límite.
+ * - {@link #mismatch(String)} calcula un hash igual de costoso para los logins que se rechazan
+ *   sin comparar (usuario inexistente o deshabilitado), así el tiempo de respuesta no revela
+ *   qué usuarios existen y esos intentos también pasan por el límite del pool.
+ */
+@Component
+public class PasswordVerifier {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${login.bcrypt.threads:0}")
+    private int threads;
+
+    @Value("${login.bcrypt.queue-capacity:64}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    /** Hash de una contraseña aleatoria, con el mismo costo que los hashes guardados */
+    private String dummyHash;
+
+    private Counter rejected;
+
+    /**
+     * Tiempo en cola hasta que un hilo toma el pedido, y tiempo del hash por resultado.
+     */
+    private Timer wait;
+    private Timer matched;
+    private Timer mismatched;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.rejected = Counter.builder("login.rejected")
+                .description("Logins rechazados por saturación del pool de BCrypt")
+                .register(meterRegistry);
+        this.wait = Timer.builder("login.bcrypt.wait")
+                .description("Espera en la cola del pool de BCrypt")
+                .register(meterRegistry);
+        this.matched = bcryptTimer("match");
+        this.mismatched = bcryptTimer("mismatch");
+        meterRegistry.gauge("login.bcrypt.queue.size", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("login.bcrypt.active", executor, ThreadPoolExecutor::getActiveCount);
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+
+    private Timer bcryptTimer(String result) {
+        return Timer.builder("login.bcrypt")
+                .description("Comparación BCrypt de la contraseña")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Compara la contraseña ingresada con el hash guardado, fuera del hilo de la petición.
+     *
+     * @param rawPassword Contraseña en texto plano enviada por el cliente
+     * @param encodedPassword Hash BCrypt almacenado
+     * @return Future con true si la contraseña es correcta. Si el pool está saturado el
+     *         future termina con {@link RejectedExecutionException}
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        try {
+            final long submitted = System.nanoTime();
+            return CompletableFuture.supplyAsync(() -> {
+                final long start = System.nanoTime();
+                wait.record(start - submitted, TimeUnit.NANOSECONDS);
+                boolean matches = passwordEncoder.matches(rawPassword, encodedPassword);
+                (matches ? matched : mismatched).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return matches;
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Compara la contraseña contra un hash fijo y descarta el resultado: tarda lo mismo que
+     * {@link #matches(String, String)} para un login que se va a rechazar de todos modos.
+     *
+     * @param rawPassword Contraseña enviada por el cliente (puede ser null)
+     * @return Future que termina con false, o con {@link RejectedExecutionException} si el pool
+     *         está saturado
+     */
+    public CompletableFuture<Boolean> mismatch(String rawPassword) {
+        return matches(rawPassword == null ? "" : rawPassword, dummyHash).thenApply(ignored -> false);
+    }
+}
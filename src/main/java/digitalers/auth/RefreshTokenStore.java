@@ -0,0 +1,294 @@
+package digitalers.auth;
+
+import digitalers.service.UserChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estado de rotación y revocación de los refresh tokens, en memoria y sin acceso a la base.
+ *
+ * - Tokens usados (jti): cada refresh token sirve una sola vez. Presentar uno ya usado es una
+ *   reutilización (el token se filtró o se copió) y revoca toda su familia.
+ * - Familias revocadas: ningún token de la familia vuelve a aceptarse.
+ * - Usuarios revocados: se rechazan los tokens emitidos hasta el instante de la revocación
+ *   (cambio de contraseña, roles o deshabilitación, vía {@link UserChangedEvent}).
+ *
+ * Cada entrada guarda hasta cuándo hace falta recordarla (la expiración del token o la validez
+ * máxima de un refresh token) y se descarta después. Las consultas son búsquedas en
+ * ConcurrentHashMap.
+ *
+ * Por defecto solo se guarda en memoria. Si "jwt.refresh.store-file" tiene valor, cada cambio se
+ * agrega a ese archivo y se vuelve a leer al iniciar, así un reinicio no habilita tokens ya usados
+ * o revocados. La purga periódica reescribe el archivo solo con las entradas vigentes.
+ *
+ * El archivo pertenece a un solo proceso: se toma un bloqueo exclusivo sobre "<archivo>.lock"
+ * mientras la aplicación está en marcha y, si otro proceso ya lo tiene, el arranque falla en
+ * lugar de que ambos reescriban el mismo archivo y pierdan entradas.
+ */
+@Slf4j
+@Component
+public class RefreshTokenStore {
+
+    private static final String USED = "T";
+    private static final String FAMILY = "F";
+    private static final String USER = "U";
+
+    @Value("${jwt.refresh.store-file:}")
+    private String storeFile;
+
+    @Value("${jwt.refresh.purge-interval-seconds:600}")
+    private long purgeIntervalSeconds;
+
+    /** jti -> expiración del token (ms) */
+    private final Map<String, Long> usedTokens = new ConcurrentHashMap<>();
+
+    /** familia -> hasta cuándo se recuerda la revocación (ms) */
+    private final Map<String, Long> revokedFamilies = new ConcurrentHashMap<>();
+
+    /** username -> instante de revocación (ms); el vencimiento se deriva de la validez del token */
+    private final Map<String, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    private Path path;
+    private FileLock lock;
+    private BufferedWriter journal;
+    private ScheduledExecutorService purger;
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!storeFile.isBlank()) {
+            path = Path.of(storeFile);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            lock = lock(path.resolveSibling(path.getFileName() + ".lock"));
+            if (Files.exists(path)) {
+                load(Files.readAllLines(path, StandardCharsets.UTF_8));
+            }
+            compact();
+        }
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "refresh-token-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purge, purgeIntervalSeconds, purgeIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    synchronized void shutdown() throws IOException {
+        purger.shutdown();
+        if (journal != null) {
+            journal.close();
+        }
+        if (lock != null) {
+            lock.channel().close();
+        }
+    }
+
+    /**
+     * Marca el token como usado.
+     *
+     * @param tokenId Claim "jti" del refresh token
+     * @param expiresAt Expiración del token en ms
+     * @return true si es el primer uso; false si ya se había usado (reutilización)
+     */
+    public boolean markUsed(String tokenId, long expiresAt) {
+        if (usedTokens.putIfAbsent(tokenId, expiresAt) != null) {
+            return false;
+        }
+        append(USED, tokenId, expiresAt);
+        return true;
+    }
+
+    /**
+     * Revoca todos los tokens de la familia, presentes y futuros.
+     *
+     * @param family Claim "fam" del refresh token
+     */
+    public void revokeFamily(String family) {
+        long until = System.currentTimeMillis() + JwtUtil.REFRESH_TOKEN_VALIDITY;
+        revokedFamilies.put(family, until);
+        append(FAMILY, family, until);
+    }
+
+    /**
+     * Revoca los refresh tokens del usuario emitidos hasta ahora.
+     *
+     * @param username Usuario
+     */
+    public void revokeUser(String username) {
+        long now = System.currentTimeMillis();
+        revokedUsers.merge(username, now, Math::max);
+        append(USER, username, now);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        revokeUser(event.username());
+    }
+
+    /**
+     * El claim "iat" tiene precisión de segundos: un token emitido en el mismo segundo que la
+     * revocación del usuario también se rechaza.
+     *
+     * @param family Familia del token
+     * @param username Usuario del token
+     * @param issuedAt Claim "iat" en ms
+     * @return true si la familia o los tokens del usuario hasta ese instante están revocados
+     */
+    public boolean isRevoked(String family, String username, long issuedAt) {
+        if (revokedFamilies.containsKey(family)) {
+            return true;
+        }
+        Long revokedAt = revokedUsers.get(username);
+        return revokedAt != null && issuedAt <= revokedAt;
+    }
+
+    /**
+     * Descarta las entradas vencidas y reescribe el archivo.
+     */
+    void purge() {
+        long now = System.currentTimeMillis();
+        usedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedFamilies.values().removeIf(until -> until <= now);
+        revokedUsers.values().removeIf(revokedAt -> revokedAt + JwtUtil.REFRESH_TOKEN_VALIDITY <= now);
+        try {
+            compact();
+        } catch (IOException e) {
+            log.error("No se pudo compactar {}", path, e);
+        }
+    }
+
+    /**
+     * @return Cantidad de entradas en memoria (tokens usados, familias y usuarios revocados)
+     */
+    public int size() {
+        return usedTokens.size() + revokedFamilies.size() + revokedUsers.size();
+    }
+
+    /**
+     * Bloqueo exclusivo del archivo de refresh tokens para este proceso.
+     */
+    private static FileLock lock(Path lockFile) throws IOException {
+        FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Ya lo tiene otro RefreshTokenStore de esta misma JVM
+            lock = null;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("El archivo de refresh tokens ya esta en uso por otro proceso: " + lockFile);
+        }
+        return lock;
+    }
+
+    private void load(List<String> lines) {
+        long now = System.currentTimeMillis();
+        for (String line : lines) {
+            // "<tipo> <clave> <valor>"; la clave (username) podría contener espacios
+            int first = line.indexOf(' ');
+            int last = line.lastIndexOf(' ');
+            if (first < 0 || last <= first) {
+                continue;
+            }
+            String type = line.substring(0, first);
+            String key = line.substring(first + 1, last);
+            long value;
+            try {
+                value = Long.parseLong(line.substring(last + 1));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            switch (type) {
+                case USED -> {
+                    if (value > now) {
+                        usedTokens.put(key, value);
+                    }
+                }
+                case FAMILY -> {
+                    if (value > now) {
+                        revokedFamilies.put(key, value);
+                    }
+                }
+                case USER -> {
+                    if (value + JwtUtil.REFRESH_TOKEN_VALIDITY > now) {
+                        revokedUsers.merge(key, value, Math::max);
+                    }
+                }
+                default -> log.warn("Linea desconocida en {}: {}", path, line);
+            }
+        }
+        log.info("Refresh tokens: {} entradas vigentes leidas de {}", size(), path);
+    }
+
+    private synchronized void append(String type, String key, long value) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.write(type + " " + key + " " + value);
+            journal.newLine();
+            journal.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo registrar la revocacion en " + path, e);
+        }
+    }
+
+    /**
+     * Reescribe el archivo con las entradas en memoria (en un temporal propio de este proceso
+     * que luego lo reemplaza) y sigue agregando sobre el nuevo.
+     */
+    private synchronized void compact() throws IOException {
+        if (path == null) {
+            return;
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName() + ".", ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Long> entry : usedTokens.entrySet()) {
+                writer.write(USED + " " + entry.getKey() + " " + entry.getValue());
+                writer.newLine();
+            }
+            for (Map.Entry<String, Long> entry : revokedFamilies.entrySet()) {
+                writer.write(FAMILY + " " + entry.getKey() + " " + entry.getValue());
+                writer.newLine();
+            }
+            for (Map.Entry<String, Long> entry : revokedUsers.entrySet()) {
+                writer.write(USER + " " + entry.getKey() + " " + entry.getValue());
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        journal = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,66 @@
+package digitalers.auth;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de roles conocidos para el claim compacto de los tokens de acceso.
+ *
+ * Cada authority de "jwt.roles" ocupa un bit según su posición (ROLE_USER = 1, ROLE_ADMIN = 2, ...)
+ * y el token lleva solo la máscara: "rl":3 en lugar de la lista de roles serializada.
+ *
+ * La lista decodificada para cada máscara se arma una sola vez y se reutiliza (es inmutable).
+ */
+final class RoleCodes {
+
+    /**
+     * Máximo de roles: los bits de un int positivo.
+     */
+    static final int MAX_ROLES = 31;
+
+    private final String[] authorities;
+    private final Map<String, Integer> bits = new HashMap<>();
+    private final Map<Integer, List<String>> decoded = new ConcurrentHashMap<>();
+
+    RoleCodes(String[] authorities) {
+        if (authorities.length > MAX_ROLES) {
+            throw new IllegalArgumentException("jwt.roles admite hasta " + MAX_ROLES + " roles");
+        }
+        this.authorities = authorities.clone();
+        for (int i = 0; i < authorities.length; i++) {
+            bits.put(authorities[i].trim(), i);
+        }
+    }
+
+    /**
+     * @param authority Authority (ej. "ROLE_ADMIN")
+     * @return Posición del bit, o -1 si el rol no está registrado
+     */
+    int bit(String authority) {
+        Integer bit = bits.get(authority);
+        return bit == null ? -1 : bit;
+    }
+
+    /**
+     * @param mask Máscara del claim
+     * @return Authorities de la máscara, en el orden del registro. Los bits sin rol se ignoran
+     */
+    List<String> decode(int mask) {
+        List<String> roles = decoded.get(mask);
+        if (roles == null) {
+            List<String> list = new ArrayList<>(Integer.bitCount(mask));
+            for (int i = 0; i < authorities.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    list.add(authorities[i].trim());
+                }
+            }
+            roles = Collections.unmodifiableList(list);
+            decoded.putIfAbsent(mask, roles);
+        }
+        return roles;
+    }
+}
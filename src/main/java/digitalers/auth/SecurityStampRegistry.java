@@ -0,0 +1,72 @@
+package digitalers.auth;
+
+import digitalers.service.UserChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro en memoria del "security stamp" (versión de credenciales) de cada usuario.
+ *
+ * El stamp vigente se guarda en el token de acceso al hacer login (claim "stamp").
+ * En modo stateless el filtro JWT confía en los roles del token solo si su stamp coincide
+ * con el vigente; si no coincide, vuelve a cargar el usuario desde la base de datos.
+ *
+ * - Todos los usuarios arrancan con el stamp de arranque del proceso, por lo que después
+ *   de un reinicio los tokens emitidos antes pasan por la base de datos (nunca se confía
+ *   en un stamp que el proceso no emitió).
+ * - {@link #rotate(String)} invalida los tokens de un usuario cuando cambian sus roles,
+ *   su contraseña o se deshabilita.
+ */
+@Component
+public class SecurityStampRegistry {
+
+    /**
+     * Nombre del claim del token que transporta el stamp.
+     */
+    public static final String CLAIM = "stamp";
+
+    private final long bootStamp = System.currentTimeMillis();
+
+    private final Map<String, Long> stamps = new ConcurrentHashMap<>();
+
+    /**
+     * @param username Usuario
+     * @return Stamp vigente del usuario
+     */
+    public long current(String username) {
+        return stamps.getOrDefault(username, bootStamp);
+    }
+
+    /**
+     * Genera un nuevo stamp para el usuario, invalidando los tokens emitidos hasta ahora.
+     *
+     * @param username Usuario cuyos datos de seguridad cambiaron
+     */
+    public void rotate(String username) {
+        stamps.merge(username, bootStamp + 1, (previous, ignored) -> previous + 1);
+    }
+
+    /**
+     * Invalida los tokens del usuario cuando cambian sus datos de seguridad.
+     *
+     * @param event Evento con el username del usuario que cambió
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        rotate(event.username());
+    }
+
+    /**
+     * Compara el stamp contenido en el token con el vigente del usuario.
+     *
+     * @param username Usuario del token
+     * @param claimValue Valor del claim {@link #CLAIM} (puede ser null)
+     * @return true si el token lleva el stamp vigente
+     */
+    public boolean matches(String username, Object claimValue) {
+        return claimValue instanceof Number stamp && stamp.longValue() == current(username);
+    }
+}
@@ -0,0 +1,36 @@
+package digitalers.auth;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Resultado de verificar un token JWT una única vez.
+ * Contiene los datos que el filtro de autenticación necesita (subject, expiración y roles)
+ * para que no tenga que volver a parsear ni verificar la firma del token.
+ *
+ * @param subject Username del usuario (claim "sub")
+ * @param expiration Fecha de expiración del token (claim "exp")
+ * @param roles Authorities contenidas en el claim "roles" (vacío si el token no las trae)
+ * @param claims Todos los claims del token, ya verificados
+ */
+public record VerifiedToken(String subject, Date expiration, List<String> roles, Claims claims) {
+
+    /**
+     * Indica si el token ya expiró respecto del instante indicado.
+     *
+     * @param nowMillis Instante actual en milisegundos
+     * @return true si el token está expirado
+     */
+    public boolean isExpired(long nowMillis) {
+        return expiration != null && expiration.getTime() <= nowMillis;
+    }
+
+    /**
+     * @return true si es un refresh token (no sirve como token de acceso)
+     */
+    public boolean isRefresh() {
+        return JwtUtil.REFRESH_TYPE.equals(claims.get(JwtUtil.TYPE_CLAIM));
+    }
+}
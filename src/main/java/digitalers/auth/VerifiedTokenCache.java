@@ -0,0 +1,82 @@
+package digitalers.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU acotado de tokens JWT ya verificados.
+ *
+ * - La clave es el digest SHA-256 del token (no se guarda el token completo).
+ * - Cada entrada vive como máximo hasta el "exp" del token.
+ * - Cuando se supera maxSize se descarta la entrada usada hace más tiempo.
+ *
+ * Es thread-safe: todos los accesos al mapa se sincronizan sobre la propia instancia.
+ */
+public class VerifiedTokenCache {
+
+    private final int maxSize;
+
+    private final Map<String, VerifiedToken> entries;
+
+    public VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+        // accessOrder = true -> el orden de iteración es de menos a más recientemente usado (LRU)
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > VerifiedTokenCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Busca un token verificado en el cache.
+     * Si la entrada existe pero el token ya expiró, se elimina y se devuelve null.
+     *
+     * @param key Digest del token (ver {@link #digest(String)})
+     * @param nowMillis Instante actual en milisegundos
+     * @return Token verificado o null si no está en el cache
+     */
+    public synchronized VerifiedToken get(String key, long nowMillis) {
+        VerifiedToken token = entries.get(key);
+        if (token != null && token.isExpired(nowMillis)) {
+            entries.remove(key);
+            return null;
+        }
+        return token;
+    }
+
+    public synchronized void put(String key, VerifiedToken token) {
+        if (maxSize > 0) {
+            entries.put(key, token);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Calcula el digest SHA-256 del token codificado en Base64 URL-safe.
+     *
+     * @param token Token JWT compacto
+     * @return Clave de 43 caracteres para el cache
+     */
+    public static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible en la JVM", e);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package digitalers.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digitalers.datasource.ReplicaLagMonitor;
+import digitalers.dto.PersonaView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache del JSON (UTF-8) ya serializado de cada persona, por id.
+ *
+ * - GET /personas/{id} escribe los bytes cacheados directo en la respuesta, sin pasar por Jackson.
+ * - Los listados arman el array concatenando los fragmentos cacheados; solo se serializan las
+ *   personas que no están en el cache o cuya versión cambió.
+ * - PersonaServiceImpl invalida la entrada (después del commit) en cada modificación y baja.
+ *
+ * Para que una lectura concurrente con una escritura no deje en el cache un JSON viejo, quien
+ * lee de la base toma {@link #marca()} antes de la consulta y la entrada solo se guarda si no
+ * hubo invalidaciones en el medio.
+ *
+ * Con réplica de lectura la consulta puede ver datos anteriores a una invalidación ya
+ * confirmada. Se recuerda el instante de las últimas invalidaciones de cada persona y la
+ * entrada solo se guarda si la lectura ya las incluía ({@link ReplicaLagMonitor#consistentUpTo()}
+ * tomado en la marca).
+ */
+@Component
+public class PersonaJsonCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLag;
+
+    @Value("${personas.json-cache.max-size:10000}")
+    private int maxSize;
+
+    private Map<Long, Entry> cache;
+
+    private final AtomicLong invalidaciones = new AtomicLong();
+
+    /** id -> instante de la invalidación, mientras una lectura de la réplica pueda no verla */
+    private final Map<Long, Long> recientes = new HashMap<>();
+
+    /** Las invalidaciones anteriores a este instante ya se descartaron de "recientes" */
+    private long descartadasHasta = Long.MIN_VALUE;
+
+    private Counter hits;
+    private Counter misses;
+
+    /**
+     * JSON de una persona y la versión (columna VERSION) con la que se generó.
+     */
+    public record Entry(Long version, byte[] json) {
+    }
+
+    /**
+     * Estado tomado antes de leer de la base.
+     *
+     * @param invalidaciones Invalidaciones hasta ese momento
+     * @param visibleHasta Instante antes del cual la lectura ve todos los commits
+     */
+    public record Marca(long invalidaciones, long visibleHasta) {
+    }
+
+    @PostConstruct
+    void init() {
+        // accessOrder = true -> se descarta la persona leída hace más tiempo (LRU)
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hits = meterRegistry.counter("personas.json.cache", "result", "hit");
+        this.misses = meterRegistry.counter("personas.json.cache", "result", "miss");
+        meterRegistry.gauge("personas.json.cache.size", this, PersonaJsonCache::size);
+    }
+
+    /**
+     * @return Valor a tomar antes de leer de la base y pasar a {@link #toJsonArray}
+     */
+    public Marca marca() {
+        return new Marca(invalidaciones.get(), replicaLag.consistentUpTo());
+    }
+
+    /**
+     * JSON de la persona desde el cache o, si no está, cargándola con "loader" y serializándola.
+     *
+     * @return Entrada cacheada, o null si la persona no existe
+     */
+    public Entry get(Long id, Function<Long, PersonaView> loader) {
+        Entry entry = lookup(id);
+        if (entry != null) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        Marca marca = marca();
+        PersonaView persona = loader.apply(id);
+        if (persona == null) {
+            return null;
+        }
+        entry = new Entry(persona.version(), serializar(persona));
+        put(id, entry, marca);
+        return entry;
+    }
+
+    /**
+     * Arma el array JSON de un listado. Reutiliza el fragmento cacheado de cada persona si fue
+     * generado con la misma versión que la recién leída.
+     *
+     * @param personas Personas leídas de la base
+     * @param marca Valor de {@link #marca()} tomado antes de la consulta
+     */
+    public byte[] toJsonArray(List<PersonaView> personas, Marca marca) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(personas.size() * 256 + 2);
+        out.write('[');
+        for (int i = 0; i < personas.size(); i++) {
+            PersonaView persona = personas.get(i);
+            if (i > 0) {
+                out.write(',');
+            }
+            Entry entry = lookup(persona.id());
+            if (entry != null && Objects.equals(entry.version(), persona.version())) {
+                hits.increment();
+            } else {
+                misses.increment();
+                entry = new Entry(persona.version(), serializar(persona));
+                put(persona.id(), entry, marca);
+            }
+            out.writeBytes(entry.json());
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    /**
+     * Quita la persona del cache (después del commit si hay una transacción activa).
+     */
+    public void evict(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(id);
+                }
+            });
+        } else {
+            remove(id);
+        }
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    private synchronized Entry lookup(Long id) {
+        return cache.get(id);
+    }
+
+    private synchronized void put(Long id, Entry entry, Marca marca) {
+        if (maxSize > 0 && invalidaciones.get() == marca.invalidaciones() && incluida(id, marca.visibleHasta())) {
+            cache.put(id, entry);
+        }
+    }
+
+    /**
+     * @return true si una lectura que ve los commits anteriores a "visibleHasta" incluye la
+     * última modificación de la persona
+     */
+    private boolean incluida(Long id, long visibleHasta) {
+        if (visibleHasta < descartadasHasta) {
+            return false;
+        }
+        Long invalidada = recientes.get(id);
+        return invalidada == null || invalidada < visibleHasta;
+    }
+
+    private synchronized void remove(Long id) {
+        invalidaciones.incrementAndGet();
+        cache.remove(id);
+        if (replicaLag.isEnabled()) {
+            // Las que ya ve cualquier lectura nueva no hacen falta
+            long visibleHasta = replicaLag.consistentUpTo();
+            recientes.values().removeIf(instante -> instante < visibleHasta);
+            descartadasHasta = Math.max(descartadasHasta, visibleHasta);
+            recientes.put(id, System.currentTimeMillis());
+        }
+    }
+
+    private byte[] serializar(PersonaView persona) {
+        try {
+            return objectMapper.writeValueAsBytes(persona);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
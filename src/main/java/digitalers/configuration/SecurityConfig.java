@@ -1,7 +1,9 @@
 package digitalers.configuration;
 
 import digitalers.auth.JwtAuthenticationFilter;
+import digitalers.limit.ConcurrencyLimitFilter;
 import digitalers.service.UserDetailService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -35,6 +37,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
     @Bean
     public static BCryptPasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -63,13 +68,24 @@ public class SecurityConfig {
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/public/**", "/swagger-ui/**", "/v3/api-docs/**", "/api-docs/**").permitAll()
+                        // El dispatch ASYNC reanuda una petición ya autorizada (streaming, login asíncrono)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers(JwtAuthenticationFilter.PUBLIC_PATHS).permitAll()
                         .requestMatchers(HttpMethod.GET, "/personas").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/personas/export", "/personas/filter").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/personas/search").hasAnyRole("USER", "ADMIN")
+                        .requestMatchers("/personas/batch").hasRole("ADMIN")
+                        .requestMatchers("/personas/ingest", "/personas/ingest/*").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/personas/{id}").hasAnyRole("USER", "ADMIN")
-                        .requestMatchers(HttpMethod.POST, "/login").permitAll()
+                        .requestMatchers(HttpMethod.PATCH, "/personas/{id}").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/login", "/login/refresh").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().denyAll())
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);  // ✅ AGREGAR ESTA LÍNEA
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)  // ✅ AGREGAR ESTA LÍNEA
+                // Límite de concurrencia antes de autenticar: lo que se rechaza no llega a verificar el token
+                .addFilterBefore(concurrencyLimitFilter, JwtAuthenticationFilter.class);
                 //.httpBasic(Customizer.withDefaults()); // Habilita httpBasic con configuración por defecto
 
         return http.build();
@@ -1,14 +1,25 @@
 package digitalers.controller;
 
 import digitalers.auth.JwtUtil;
+import digitalers.auth.PasswordVerifier;
+import digitalers.auth.RefreshTokenStore;
+import digitalers.auth.SecurityStampRegistry;
+import digitalers.auth.VerifiedToken;
 import digitalers.dto.Credential;
+import digitalers.dto.RefreshTokenRequest;
 import digitalers.entity.UserApi;
 import digitalers.service.UserDetailService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -16,7 +27,12 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
+@Slf4j
 @Tag(name = "AuthController", description = "Controlador para el login de usuario")
 @RestController
 @RequestMapping("/login")
@@ -28,18 +44,103 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private SecurityStampRegistry securityStampRegistry;
+
+    @Autowired
+    private PasswordVerifier passwordVerifier;
+
+    @Autowired
+    private RefreshTokenStore refreshTokenStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Login en un solo acceso a la base (usuario + roles) y con BCrypt fuera del hilo de Tomcat.
+     * El hilo de la petición se libera mientras se verifica la contraseña; si el pool de BCrypt
+     * está saturado se responde 503 de inmediato.
+     *
+     * Un usuario inexistente o deshabilitado (o sin contraseña) también pasa por BCrypt contra
+     * un hash fijo, para que el tiempo de respuesta no indique si el usuario existe.
+     */
     @PostMapping
-    public ResponseEntity<?> login(@RequestBody Credential credencial){
-        User userDetails = userDetailService.loadUserByUsername(credencial.getUsername());
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Credential credencial){
+        Timer.Sample sample = Timer.start(meterRegistry);
+
         UserApi userApi = userDetailService.findUserByUsername(credencial.getUsername());
+        CompletableFuture<Boolean> verificacion =
+                userApi == null || !Boolean.TRUE.equals(userApi.getEnabled()) || credencial.getPassword() == null
+                        ? passwordVerifier.mismatch(credencial.getPassword())
+                        : passwordVerifier.matches(credencial.getPassword(), userApi.getPassword());
+
+        return verificacion
+                .thenApply(valid -> valid
+                        ? record(sample, "success", tokens(userApi, UUID.randomUUID().toString()))
+                        : record(sample, "unauthorized", unauthorized()))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    if (cause instanceof RejectedExecutionException) {
+                        return record(sample, "rejected", ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .body("Demasiados logins simultaneos, reintente en unos segundos"));
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    /**
+     * Renueva el token de acceso sin contraseña (sin BCrypt): una consulta del usuario y la
+     * verificación de la firma del refresh token.
+     *
+     * Rotación: cada refresh token sirve una sola vez y la respuesta trae uno nuevo de la misma
+     * familia. Si llega uno ya usado, alguien más tiene una copia: se revoca la familia entera,
+     * así tanto el cliente legítimo como el otro tienen que volver a hacer login.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenRequest request){
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        VerifiedToken token;
+        try {
+            token = request.refreshToken() == null ? null : jwtUtil.verify(request.refreshToken());
+        } catch (JwtException | IllegalArgumentException e) {
+            token = null;
+        }
+        Claims claims = token == null ? null : token.claims();
+        String family = claims == null ? null : claims.get(JwtUtil.FAMILY_CLAIM, String.class);
+        if (family == null || !token.isRefresh() || claims.getId() == null || claims.getIssuedAt() == null) {
+            return recordRefresh(sample, "invalid", invalidRefresh());
+        }
 
-        Map<String, Object> additionalInfo = new HashMap<>();
-        additionalInfo.put("username", userDetails.getUsername());
-        additionalInfo.put("roles",userApi.getRoles());
-        additionalInfo.put("email", userApi.getEmail());
+        if (refreshTokenStore.isRevoked(family, token.subject(), claims.getIssuedAt().getTime())) {
+            return recordRefresh(sample, "revoked", invalidRefresh());
+        }
+        if (!refreshTokenStore.markUsed(claims.getId(), token.expiration().getTime())) {
+            refreshTokenStore.revokeFamily(family);
+            log.warn("Refresh token reutilizado para '{}': se revoca la familia {}", token.subject(), family);
+            return recordRefresh(sample, "reused", invalidRefresh());
+        }
 
-        String accessToken = jwtUtil.generateToken((UserDetails) userDetails, additionalInfo);
-        String refreshToken = jwtUtil.generateRefreshToken((UserDetails) userDetails);
+        UserApi userApi = userDetailService.findUserByUsername(token.subject());
+        if (userApi == null || !Boolean.TRUE.equals(userApi.getEnabled())) {
+            return recordRefresh(sample, "unauthorized", invalidRefresh());
+        }
+        return recordRefresh(sample, "success", tokens(userApi, family));
+    }
+
+    /**
+     * @param family Familia del refresh token: nueva en el login, la misma en cada renovación
+     */
+    private ResponseEntity<?> tokens(UserApi userApi, String family) {
+        User userDetails = userDetailService.toUser(userApi);
+
+        // Claims compactos: roles como máscara, sin repetir el username; "email" solo si está
+        // habilitado en jwt.claims.optional
+        String accessToken = jwtUtil.generateAccessToken(userDetails,
+                securityStampRegistry.current(userDetails.getUsername()),
+                claim -> "email".equals(claim) ? userApi.getEmail() : null);
+        String refreshToken = jwtUtil.generateRefreshToken(userDetails, family);
 
         Map<String, Object> response = new HashMap<>();
         response.put("accessToken", accessToken);
@@ -47,4 +148,32 @@ public class AuthController {
 
         return ResponseEntity.ok(response);
     }
+
+    private static ResponseEntity<?> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Credenciales invalidas");
+    }
+
+    private static ResponseEntity<?> invalidRefresh() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Refresh token invalido");
+    }
+
+    /**
+     * Registra la latencia del login o de la renovación (percentiles p50/p95/p99) según el resultado.
+     */
+    private ResponseEntity<?> record(Timer.Sample sample, String outcome, ResponseEntity<?> response) {
+        return record(sample, "login.latency", outcome, response);
+    }
+
+    private ResponseEntity<?> recordRefresh(Timer.Sample sample, String outcome, ResponseEntity<?> response) {
+        return record(sample, "login.refresh.latency", outcome, response);
+    }
+
+    private ResponseEntity<?> record(Timer.Sample sample, String name, String outcome, ResponseEntity<?> response) {
+        sample.stop(Timer.builder(name)
+                .description("Latencia del login")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
+        return response;
+    }
 }
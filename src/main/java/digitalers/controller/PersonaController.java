@@ -1,34 +1,180 @@
 package digitalers.controller;
 
+import digitalers.cache.PersonaJsonCache;
+import digitalers.datasource.ReplicaLagMonitor;
+import digitalers.dto.IngestStatus;
 import digitalers.dto.PersonaDto;
+import digitalers.dto.PersonaFiltro;
+import digitalers.dto.PersonaPatchDto;
+import digitalers.dto.PersonaView;
+import digitalers.dto.PersonaUpdateDto;
 import digitalers.entity.Persona;
+import digitalers.ingest.PersonaIngestionQueue;
+import digitalers.search.PersonaSearchIndex;
 import digitalers.service.PersonaServicio;
+import digitalers.service.PersonaTableVersion;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 @Tag(name = "Personas", description = "CRUD completo de personas")
 @RequestMapping("/personas")
 @RestController
 public class PersonaController {
 
+    /**
+     * Máxima cantidad de elementos aceptados en una operación en lote.
+     */
+    private static final int MAX_BATCH = 10000;
+
     @Qualifier("servicioDePersona")
     @Autowired
     PersonaServicio personaServicio;
 
+    @Autowired
+    PersonaIngestionQueue ingestionQueue;
+
+    @Autowired
+    PersonaTableVersion tableVersion;
+
+    @Autowired
+    PersonaJsonCache jsonCache;
+
+    @Autowired
+    ReplicaLagMonitor replicaLag;
+
 
+    /**
+     * Lista paginada de personas. Sin "page" usa paginación por cursor (header X-Next-Cursor);
+     * con "page" usa paginación por offset (header X-Next-Page).
+     *
+     * El ETag es la versión de la tabla: si no hubo cambios desde el If-None-Match (o el
+     * If-Modified-Since) responde 304 sin consultar la base ni serializar.
+     * Formatos: JSON, CBOR o Smile según el Accept (ver PersonaFormatos).
+     */
     @GetMapping
-    public ResponseEntity<?> getPersonas(){
-        return personaServicio.todasLasPersonas();
+    public ResponseEntity<?> getPersonas(@RequestParam(name = "cursor", required = false) String cursor,
+                                         @RequestParam(name = "page", required = false) Integer page,
+                                         @RequestParam(name = "limit", defaultValue = "50") int limit,
+                                         WebRequest request){
+        MediaType formato = PersonaFormatos.negociar(request.getHeader(HttpHeaders.ACCEPT));
+        if (formato == null) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        // Se leen antes de la consulta: si hay un cambio en el medio, el próximo GET trae los datos nuevos
+        String etag = tableVersion.etag(formato);
+        long lastModified = tableVersion.lastModified();
+        // Si la lectura puede ir a una réplica que todavía no tiene el último cambio, se responde
+        // sin ETag ni Last-Modified para que el cliente no guarde datos viejos con la versión nueva
+        if (replicaLag.consistentUpTo() > lastModified && request.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+        return personaServicio.todasLasPersonas(cursor, page, limit, formato);
+    }
+
+    /**
+     * Búsqueda por texto en nombre, email y teléfono (índice de trigramas en memoria).
+     * Devuelve los ids de la página ordenados por relevancia.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> buscar(@RequestParam(name = "q") String q,
+                                    @RequestParam(name = "page", defaultValue = "0") int page,
+                                    @RequestParam(name = "size", defaultValue = "20") int size){
+        if (q.strip().length() < PersonaSearchIndex.N) {
+            return ResponseEntity.badRequest().body("La busqueda debe tener al menos " + PersonaSearchIndex.N + " caracteres");
+        }
+        return ResponseEntity.ok().body(personaServicio.buscarPersonas(q, page, size));
+    }
+
+    /**
+     * Filtro por nombre, rango de edad, barrio y calle (todos opcionales, combinados con AND).
+     * Paginado por offset sin COUNT; la página siguiente se informa en el header X-Next-Page.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<?> filtrar(PersonaFiltro filtro,
+                                     @RequestParam(name = "page", defaultValue = "0") int page,
+                                     @RequestParam(name = "limit", defaultValue = "50") int limit,
+                                     @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept){
+        MediaType formato = PersonaFormatos.negociar(accept);
+        if (formato == null) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        return personaServicio.filtrarPersonas(filtro, page, limit, formato);
+    }
+
+    /**
+     * Exportación completa en streaming: NDJSON (por defecto) o CSV, escrita fila por fila.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(name = "format", defaultValue = "ndjson") String formato){
+        boolean csv = "csv".equalsIgnoreCase(formato);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=personas." + (csv ? "csv" : "ndjson"))
+                .body(out -> personaServicio.exportarPersonas(formato, out));
     }
 
+    /**
+     * Persona por id con ETag derivado de su columna VERSION. El JSON sale de PersonaJsonCache
+     * (bytes ya serializados); si la persona está cacheada no se consulta la base, y con un
+     * If-None-Match vigente se responde 304 sin escribir el cuerpo.
+     * CBOR y Smile se leen de la base y los serializa Jackson.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Persona> getPersona(@PathVariable(name = "id") Long personaId){
-        return ResponseEntity.ok().body(personaServicio.personaPorId(personaId));
+    public ResponseEntity<?> getPersona(@PathVariable(name = "id") Long personaId, WebRequest request){
+        MediaType formato = PersonaFormatos.negociar(request.getHeader(HttpHeaders.ACCEPT));
+        if (formato == null) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        // Sin Last-Modified mientras la réplica no tenga el último cambio (el ETag sale de la fila leída)
+        long lastModified = tableVersion.lastModified();
+        if (replicaLag.consistentUpTo() <= lastModified) {
+            lastModified = -1;
+        }
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null && request.checkNotModified(lastModified)) {
+            return null;
+        }
+
+        if (!MediaType.APPLICATION_JSON.equals(formato)) {
+            PersonaView persona = personaServicio.personaPorId(personaId);
+            if (persona == null) {
+                return ResponseEntity.ok().body(null);
+            }
+            String etag = PersonaTableVersion.etag(personaId, persona.version(), formato);
+            if (request.checkNotModified(etag, lastModified)) {
+                return null;
+            }
+            return ok(formato, etag, lastModified).body(persona);
+        }
+
+        PersonaJsonCache.Entry persona = jsonCache.get(personaId, personaServicio::personaPorId);
+        if (persona == null) {
+            return ResponseEntity.ok().body(null);
+        }
+        String etag = PersonaTableVersion.etag(personaId, persona.version(), formato);
+        if (request.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+        return ok(MediaType.APPLICATION_JSON, etag, lastModified).body(persona.json());
+    }
+
+    private static ResponseEntity.BodyBuilder ok(MediaType formato, String etag, long lastModified) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(formato)
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(etag);
+        return lastModified >= 0 ? response.lastModified(lastModified) : response;
     }
 
     @PostMapping
@@ -41,9 +187,65 @@ public class PersonaController {
         return ResponseEntity.ok().body(personaServicio.actualizarPersona(dto, idPersona));
     }
 
+    /**
+     * Actualización parcial: solo los campos enviados. Requiere la "version" leída; si otra
+     * petición modificó la persona antes responde 409.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> modificar(@RequestBody PersonaPatchDto dto, @PathVariable(name = "id") Long idPersona){
+        return personaServicio.modificarPersona(idPersona, dto);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<String> eliminar(@PathVariable(name = "id") Long idPersona){
         personaServicio.eliminarPorId(idPersona);
         return ResponseEntity.ok().body("Persona con id " + idPersona + " eliminada con exito.");
     }
+
+    /**
+     * Alta asíncrona: encola la persona y responde 202 con un tracking id; se guarda en el
+     * próximo lote. Si la cola está llena responde 503 con Retry-After.
+     */
+    @PostMapping("/ingest")
+    public ResponseEntity<?> ingestar(@RequestBody PersonaDto dto){
+        String trackingId = ingestionQueue.encolar(dto);
+        if (trackingId == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Cola de ingesta llena, reintente en unos segundos");
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/personas/ingest/" + trackingId))
+                .body(Map.of("trackingId", trackingId));
+    }
+
+    @GetMapping("/ingest/{trackingId}")
+    public ResponseEntity<IngestStatus> estadoIngesta(@PathVariable(name = "trackingId") String trackingId){
+        IngestStatus estado = ingestionQueue.estado(trackingId);
+        return estado == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(estado);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> crearEnLote(@RequestBody List<PersonaDto> dtos){
+        if (dtos.size() > MAX_BATCH) {
+            return ResponseEntity.badRequest().body("El lote no puede superar " + MAX_BATCH + " elementos");
+        }
+        return ResponseEntity.ok().body(personaServicio.crearPersonasEnLote(dtos));
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<?> actualizarEnLote(@RequestBody List<PersonaUpdateDto> dtos){
+        if (dtos.size() > MAX_BATCH) {
+            return ResponseEntity.badRequest().body("El lote no puede superar " + MAX_BATCH + " elementos");
+        }
+        return ResponseEntity.ok().body(personaServicio.actualizarPersonasEnLote(dtos));
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<?> eliminarEnLote(@RequestBody List<Long> ids){
+        if (ids.size() > MAX_BATCH) {
+            return ResponseEntity.badRequest().body("El lote no puede superar " + MAX_BATCH + " elementos");
+        }
+        return ResponseEntity.ok().body(personaServicio.eliminarEnLote(ids));
+    }
 }
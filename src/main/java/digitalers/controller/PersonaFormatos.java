@@ -0,0 +1,57 @@
+package digitalers.controller;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Formatos en los que se pueden pedir las personas (header Accept).
+ *
+ * - application/json (por defecto): sale de PersonaJsonCache, sin pasar por Jackson.
+ * - application/cbor y application/x-jackson-smile: binarios, más compactos y más baratos de
+ *   decodificar; los serializan los conversores Jackson de Spring MVC.
+ */
+final class PersonaFormatos {
+
+    static final MediaType CBOR = MediaType.valueOf("application/cbor");
+
+    static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private static final List<MediaType> SOPORTADOS = List.of(MediaType.APPLICATION_JSON, CBOR, SMILE);
+
+    private PersonaFormatos() {
+    }
+
+    /**
+     * Elige el formato de la respuesta según el Accept (respetando los q=).
+     *
+     * @return JSON si no hay Accept, o null si no se acepta ninguno de los formatos soportados
+     */
+    static MediaType negociar(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> aceptados;
+        try {
+            aceptados = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        // Orden estable: a igual q se respeta el orden del cliente
+        aceptados.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType aceptado : aceptados) {
+            if (aceptado.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType soportado : SOPORTADOS) {
+                if (aceptado.includes(soportado)) {
+                    return soportado;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,134 @@
+package digitalers.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Elige la primaria o la réplica para cada conexión:
+ *
+ * - Transacciones de escritura, y todo lo que corre fuera de una transacción: primaria.
+ * - Transacciones @Transactional(readOnly = true): réplica, salvo que esté atrasada más de lo
+ *   tolerado ({@link ReplicaLagMonitor}) o que el usuario autenticado haya confirmado una
+ *   escritura que la réplica todavía no tiene (lee lo que escribió: hasta que la posición de
+ *   la réplica pasa el instante de su último commit, sus lecturas van a la primaria).
+ *
+ * Los últimos commits de cada usuario se guardan en memoria y se descartan en cuanto la réplica
+ * los tiene (en cada medición de {@link ReplicaLagMonitor}), lea o no el usuario después. Por
+ * eso "lee lo que escribió" vale solo dentro de una instancia: detrás de un balanceador sin
+ * afinidad de sesión la petición siguiente puede llegar a otro nodo, que no conoce la escritura
+ * y lee de su réplica un dato anterior.
+ *
+ * Debe usarse detrás de un LazyConnectionDataSourceProxy: el flag readOnly de la transacción
+ * se conoce recién después de que Hibernate pide la conexión, y el proxy demora la elección
+ * hasta la primera sentencia.
+ *
+ * Métrica: datasource.reads con el tag "route" (replica, lag o sticky).
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final ReplicaLagMonitor replicaLag;
+
+    /** username -> instante del último commit de escritura (ms), mientras la réplica no lo tenga */
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    private final Counter replicaReads;
+    private final Counter laggingReads;
+    private final Counter stickyReads;
+
+    public ReadWriteRoutingDataSource(ReplicaLagMonitor replicaLag, MeterRegistry meterRegistry) {
+        this.replicaLag = replicaLag;
+        this.replicaReads = readCounter(meterRegistry, "replica");
+        this.laggingReads = readCounter(meterRegistry, "lag");
+        this.stickyReads = readCounter(meterRegistry, "sticky");
+        replicaLag.onPosition(this::prune);
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("datasource.reads")
+                .description("Transacciones de solo lectura por destino")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            registerWrite();
+            return PRIMARY;
+        }
+
+        long position = replicaLag.replicaPosition();
+        if (position < 0) {
+            laggingReads.increment();
+            return PRIMARY;
+        }
+        String username = currentUser();
+        if (username != null) {
+            Long lastWrite = lastWrites.get(username);
+            if (lastWrite != null) {
+                if (lastWrite >= position) {
+                    stickyReads.increment();
+                    return PRIMARY;
+                }
+                lastWrites.remove(username, lastWrite);
+            }
+        }
+        replicaReads.increment();
+        return REPLICA;
+    }
+
+    /**
+     * Recuerda el instante del commit para las lecturas siguientes del mismo usuario.
+     */
+    private void registerWrite() {
+        String username = currentUser();
+        if (username == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWrites.put(username, System.currentTimeMillis());
+            }
+        });
+    }
+
+    /**
+     * Descarta los commits que la réplica ya tiene, también los de usuarios que no vuelven a leer.
+     *
+     * @param position Posición leída en la réplica (ms)
+     */
+    void prune(long position) {
+        lastWrites.values().removeIf(lastWrite -> lastWrite < position);
+    }
+
+    /**
+     * @return Usuarios con un commit que la réplica todavía no tiene
+     */
+    int pendingWrites() {
+        return lastWrites.size();
+    }
+
+    /**
+     * @return Usuario autenticado, o null en peticiones anónimas y tareas en segundo plano
+     */
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,198 @@
+package digitalers.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Atraso de la réplica de lectura, medido con un heartbeat.
+ *
+ * Cada "datasource.replica.heartbeat-interval-ms" se escribe en la primaria el instante actual
+ * (fila propia de esta instancia en "datasource.replica.heartbeat-table") y se lee la misma fila
+ * en la réplica. Como la réplica aplica los commits en orden, si ve el heartbeat escrito en el
+ * instante P ya tiene todos los commits anteriores a P: esa es su posición. El atraso es
+ * ahora - P, y ambos instantes salen del reloj de esta instancia.
+ *
+ * La réplica se usa mientras el atraso no supere "datasource.replica.max-lag-ms" (conviene que
+ * sean varios intervalos de heartbeat). Si no responde, no tiene la fila o se atrasa más, las
+ * lecturas vuelven a la primaria hasta la próxima medición correcta.
+ *
+ * Con "datasource.replica.enabled=false" (por defecto) no hay réplica y todo se lee de la
+ * primaria. Métrica: datasource.replica.lag (ms, NaN si la réplica no se usa).
+ */
+@Slf4j
+@Component
+public class ReplicaLagMonitor {
+
+    @Value("${datasource.replica.enabled:false}")
+    private boolean enabled;
+
+    @Value("${datasource.replica.max-lag-ms:1000}")
+    private long maxLagMillis;
+
+    @Value("${datasource.replica.heartbeat-interval-ms:100}")
+    private long heartbeatIntervalMillis;
+
+    @Value("${datasource.replica.heartbeat-table:REPLICA_HEARTBEAT}")
+    private String heartbeatTable;
+
+    @Autowired(required = false)
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired(required = false)
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /** Último heartbeat visto en la réplica (ms), o -1 si la última medición falló */
+    private volatile long position = -1;
+
+    /** Se avisan de cada posición leída en la réplica (ver {@link #onPosition}) */
+    private final List<LongConsumer> positionListeners = new CopyOnWriteArrayList<>();
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.replica = new JdbcTemplate(replicaDataSource);
+        // Una réplica colgada no debe frenar las mediciones: cuenta como atrasada
+        replica.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(maxLagMillis)));
+
+        primary.execute("CREATE TABLE IF NOT EXISTS " + heartbeatTable
+                + " (INSTANCE_ID VARCHAR(36) PRIMARY KEY, TS BIGINT NOT NULL)");
+        primary.update("INSERT INTO " + heartbeatTable + " (INSTANCE_ID, TS) VALUES (?, ?)",
+                instanceId, System.currentTimeMillis());
+
+        if (meterRegistry != null) {
+            Gauge.builder("datasource.replica.lag", this, ReplicaLagMonitor::lagMillis)
+                    .description("Atraso de la réplica de lectura")
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            beat();
+            check();
+        }, 0, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            primary.update("DELETE FROM " + heartbeatTable + " WHERE INSTANCE_ID = ?", instanceId);
+        } catch (DataAccessException e) {
+            log.debug("No se pudo borrar el heartbeat de la instancia {}", instanceId, e);
+        }
+    }
+
+    /**
+     * Escribe el heartbeat en la primaria.
+     */
+    void beat() {
+        try {
+            primary.update("UPDATE " + heartbeatTable + " SET TS = ? WHERE INSTANCE_ID = ?",
+                    System.currentTimeMillis(), instanceId);
+        } catch (DataAccessException e) {
+            log.warn("No se pudo escribir el heartbeat de la réplica: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Lee el heartbeat en la réplica y actualiza su posición.
+     */
+    void check() {
+        long previous = position;
+        try {
+            Long ts = replica.queryForObject("SELECT TS FROM " + heartbeatTable + " WHERE INSTANCE_ID = ?",
+                    Long.class, instanceId);
+            position = ts == null ? -1 : ts;
+            if (ts != null) {
+                positionListeners.forEach(listener -> listener.accept(ts));
+            }
+        } catch (DataAccessException e) {
+            position = -1;
+            if (previous >= 0) {
+                log.warn("Réplica de lectura sin respuesta, se lee de la primaria: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Registra una acción a ejecutar con cada posición leída en la réplica (aunque esté más
+     * atrasada que max-lag: los commits anteriores a esa posición ya son visibles en ella).
+     */
+    public void onPosition(LongConsumer listener) {
+        positionListeners.add(listener);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return Posición de la réplica: todo commit anterior a este instante (ms) es visible en
+     * ella. -1 si no hay que usarla (deshabilitada, sin respuesta o más atrasada que max-lag)
+     */
+    public long replicaPosition() {
+        long p = position;
+        return p >= 0 && System.currentTimeMillis() - p <= maxLagMillis ? p : -1;
+    }
+
+    /**
+     * Límite de lo que ve una lectura de solo lectura que empieza ahora, esté donde esté ruteada:
+     * la posición de la réplica si se usa, o el instante actual si se lee de la primaria.
+     * Sirve a los caches compartidos para no guardar datos anteriores a una modificación ya
+     * confirmada.
+     *
+     * @return Instante (ms) antes del cual todo commit es visible; Long.MAX_VALUE sin réplica
+     */
+    public long consistentUpTo() {
+        if (!enabled) {
+            return Long.MAX_VALUE;
+        }
+        long p = replicaPosition();
+        return p >= 0 ? p : System.currentTimeMillis();
+    }
+
+    private double lagMillis() {
+        long p = replicaPosition();
+        return p >= 0 ? System.currentTimeMillis() - p : Double.NaN;
+    }
+}
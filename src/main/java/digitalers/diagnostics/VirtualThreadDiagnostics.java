@@ -0,0 +1,157 @@
+package digitalers.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Diagnóstico de hilos virtuales (solo con spring.threads.virtual.enabled=true, perfil "virtual").
+ *
+ * Escucha eventos JFR de la propia JVM:
+ * - jdk.VirtualThreadPinned: un hilo virtual bloqueado sin poder liberar su carrier (por ejemplo
+ *   dentro de un frame nativo o de la inicialización de una clase; desde Java 24 un bloque
+ *   synchronized ya no fija el carrier). Cada lugar distinto se loguea una vez con su stack y
+ *   se acumula en el endpoint /actuator/pinning.
+ * - jdk.VirtualThreadStart / End: cantidad de hilos virtuales creados y vivos.
+ * - jdk.VirtualThreadSubmitFailed: no se pudo programar un hilo virtual en el scheduler.
+ *
+ * Métricas: jvm.threads.virtual.pinned (timer), jvm.threads.virtual.started,
+ * jvm.threads.virtual.live y jvm.threads.virtual.submit.failed.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "pinning")
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "diagnostics.virtual-threads.enabled", matchIfMissing = true)
+public class VirtualThreadDiagnostics {
+
+    /**
+     * Frames del stack que se guardan por cada lugar de pinning.
+     */
+    private static final int STACK_DEPTH = 12;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${diagnostics.virtual-threads.pinned-threshold-ms:5}")
+    private long pinnedThresholdMillis;
+
+    private RecordingStream stream;
+
+    private final Map<String, PinningSite> sitios = new ConcurrentHashMap<>();
+
+    private final AtomicLong iniciados = new AtomicLong();
+    private final AtomicLong terminados = new AtomicLong();
+
+    private Timer pinned;
+    private Counter submitFailed;
+
+    /**
+     * Lugar del código donde se fijó el carrier, con la cantidad de veces y el tiempo total.
+     */
+    public record PinningSite(String frame, List<String> stack, AtomicLong veces, AtomicLong nanos) {
+    }
+
+    @PostConstruct
+    void start() {
+        pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Tiempo que un hilo virtual mantuvo fijado su carrier")
+                .register(meterRegistry);
+        submitFailed = meterRegistry.counter("jvm.threads.virtual.submit.failed");
+        meterRegistry.gauge("jvm.threads.virtual.started", iniciados, AtomicLong::get);
+        meterRegistry.gauge("jvm.threads.virtual.live", this, d -> d.iniciados.get() - d.terminados.get());
+
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(pinnedThresholdMillis)).withStackTrace();
+        stream.enable("jdk.VirtualThreadStart");
+        stream.enable("jdk.VirtualThreadEnd");
+        stream.enable("jdk.VirtualThreadSubmitFailed");
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.onEvent("jdk.VirtualThreadStart", e -> iniciados.incrementAndGet());
+        stream.onEvent("jdk.VirtualThreadEnd", e -> terminados.incrementAndGet());
+        stream.onEvent("jdk.VirtualThreadSubmitFailed", e -> submitFailed.increment());
+        stream.setMaxAge(Duration.ofMinutes(1));
+        stream.startAsync();
+        log.info("Diagnostico de hilos virtuales activo (pinning >= {} ms)", pinnedThresholdMillis);
+    }
+
+    @PreDestroy
+    void stop() {
+        stream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        Duration duracion = event.getDuration();
+        pinned.record(duracion);
+
+        List<String> stack = stack(event.getStackTrace());
+        String frame = stack.stream().filter(f -> f.startsWith("digitalers.")).findFirst()
+                .orElse(stack.isEmpty() ? "desconocido" : stack.get(0));
+        PinningSite sitio = sitios.computeIfAbsent(frame, f -> {
+            log.warn("Hilo virtual fijado a su carrier durante {} ms en {}:\n\t{}",
+                    duracion.toMillis(), f, String.join("\n\t", stack));
+            return new PinningSite(f, stack, new AtomicLong(), new AtomicLong());
+        });
+        sitio.veces().incrementAndGet();
+        sitio.nanos().addAndGet(duracion.toNanos());
+    }
+
+    private static List<String> stack(RecordedStackTrace trace) {
+        if (trace == null) {
+            return List.of();
+        }
+        List<String> frames = new ArrayList<>(STACK_DEPTH);
+        for (RecordedFrame frame : trace.getFrames()) {
+            if (frames.size() == STACK_DEPTH) {
+                break;
+            }
+            frames.add(frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber());
+        }
+        return frames;
+    }
+
+    /**
+     * GET /actuator/pinning: lugares de pinning ordenados por tiempo total.
+     */
+    @ReadOperation
+    public Map<String, Object> reporte() {
+        Map<String, Object> reporte = new LinkedHashMap<>();
+        reporte.put("thresholdMillis", pinnedThresholdMillis);
+        reporte.put("virtualThreadsStarted", iniciados.get());
+        reporte.put("virtualThreadsLive", iniciados.get() - terminados.get());
+        reporte.put("sites", sitios.values().stream()
+                .sorted(Comparator.comparingLong((PinningSite s) -> s.nanos().get()).reversed())
+                .map(s -> Map.of(
+                        "frame", s.frame(),
+                        "count", s.veces().get(),
+                        "totalMillis", s.nanos().get() / 1_000_000,
+                        "stack", s.stack()))
+                .collect(Collectors.toList()));
+        return reporte;
+    }
+}
@@ -0,0 +1,20 @@
+package digitalers.dto;
+
+/**
+ * Resultado de un elemento dentro de una operación en lote.
+ *
+ * @param index Posición del elemento en el pedido
+ * @param id Id de la persona creada, actualizada o eliminada (null si no se pudo determinar)
+ * @param status "OK" o "ERROR"
+ * @param error Motivo del error, null si el elemento se procesó correctamente
+ */
+public record BatchItemResult(int index, Long id, String status, String error) {
+
+    public static BatchItemResult ok(int index, Long id) {
+        return new BatchItemResult(index, id, "OK", null);
+    }
+
+    public static BatchItemResult error(int index, Long id, String error) {
+        return new BatchItemResult(index, id, "ERROR", error);
+    }
+}
@@ -0,0 +1,28 @@
+package digitalers.dto;
+
+/**
+ * Estado de una persona enviada a POST /personas/ingest.
+ *
+ * @param trackingId Id devuelto al encolar
+ * @param estado PENDIENTE, CREADA o ERROR
+ * @param id Id de la persona creada (solo si estado = CREADA)
+ * @param error Motivo del rechazo (solo si estado = ERROR)
+ */
+public record IngestStatus(String trackingId, String estado, Long id, String error) {
+
+    public static final String PENDIENTE = "PENDIENTE";
+    public static final String CREADA = "CREADA";
+    public static final String ERROR = "ERROR";
+
+    public static IngestStatus pendiente(String trackingId) {
+        return new IngestStatus(trackingId, PENDIENTE, null, null);
+    }
+
+    public static IngestStatus creada(String trackingId, Long id) {
+        return new IngestStatus(trackingId, CREADA, id, null);
+    }
+
+    public static IngestStatus error(String trackingId, String error) {
+        return new IngestStatus(trackingId, ERROR, null, error);
+    }
+}
@@ -0,0 +1,6 @@
+package digitalers.dto;
+
+/**
+ * Filtros opcionales para GET /personas/filter. Los que vienen en null no se aplican.
+ */
+public record PersonaFiltro(String nombre, Integer edadMin, Integer edadMax, String barrio, String calle) {}
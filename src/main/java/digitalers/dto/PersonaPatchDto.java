@@ -0,0 +1,12 @@
+package digitalers.dto;
+
+/**
+ * Cuerpo de PATCH /personas/{id}: solo se actualizan los campos no nulos.
+ * "version" es obligatoria y debe ser la última leída (ver PersonaView.version).
+ */
+public record PersonaPatchDto(Long version, String nombre, Integer edad, Long direccionId, String telefono, String email) {
+
+    public boolean cambiaCamposBuscables() {
+        return nombre != null || telefono != null || email != null;
+    }
+}
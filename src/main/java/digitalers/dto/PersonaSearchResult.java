@@ -0,0 +1,15 @@
+package digitalers.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una búsqueda en el índice de personas.
+ *
+ * @param q Texto buscado
+ * @param total Cantidad total de coincidencias
+ * @param page Página devuelta (desde 0)
+ * @param size Tamaño de página
+ * @param ids Ids de las personas de la página, ordenados por relevancia
+ * @param tookMicros Tiempo de la búsqueda en microsegundos
+ */
+public record PersonaSearchResult(String q, int total, int page, int size, List<Long> ids, long tookMicros) {}
@@ -0,0 +1,3 @@
+package digitalers.dto;
+
+public record PersonaUpdateDto(Long id, String nombre, Integer edad, Long direccionId, String telefono, String email) {}
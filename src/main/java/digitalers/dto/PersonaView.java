@@ -0,0 +1,23 @@
+package digitalers.dto;
+
+/**
+ * Modelo de lectura de Persona: solo las columnas que expone la API, obtenidas con un único
+ * JOIN entre PERSONAS y DIRECCIONES (ver PersonaRepository). No es una entidad administrada,
+ * por lo que no carga relaciones ni ocupa el contexto de persistencia.
+ *
+ * El JSON resultante tiene la misma forma que la entidad Persona. "version" es la que se
+ * debe enviar en PATCH /personas/{id}.
+ */
+public record PersonaView(Long id, String nombre, Integer edad, DireccionView direccion, String telefono, String email,
+                          Long version) {
+
+    /**
+     * Constructor usado por las consultas JPQL "select new" (columnas planas).
+     */
+    public PersonaView(Long id, String nombre, Integer edad, Long direccionId, String calle, String barrio,
+                       String altura, String telefono, String email, Long version) {
+        this(id, nombre, edad, new DireccionView(direccionId, calle, barrio, altura), telefono, email, version);
+    }
+
+    public record DireccionView(Long id, String calle, String barrio, String altura) {}
+}
@@ -0,0 +1,8 @@
+package digitalers.dto;
+
+/**
+ * Cuerpo de POST /login/refresh.
+ *
+ * @param refreshToken Refresh token recibido en el login o en la última renovación
+ */
+public record RefreshTokenRequest(String refreshToken) {}
@@ -3,17 +3,26 @@ package digitalers.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 @Data
 @Entity
-@Table(name = "DIRECCIONES")
+@Table(name = "DIRECCIONES", indexes = {
+        @Index(name = "IDX_DIRECCIONES_BARRIO_CALLE", columnList = "barrio, calle"),
+        @Index(name = "IDX_DIRECCIONES_CALLE", columnList = "calle")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "direcciones")
 public class Direccion {
 
     @Id
     @Column(name = "DIRECCION_ID")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Igual que Persona: secuencia pooled para poder insertar direcciones en batch
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "direccion_seq")
+    @SequenceGenerator(name = "direccion_seq", sequenceName = "DIRECCIONES_SEQ", allocationSize = 50)
     private Long id;
 
     private String calle;
@@ -5,12 +5,20 @@ import lombok.*;
 
 @Data
 @Entity
-@Table(name = "PERSONAS")
+@Table(name = "PERSONAS", indexes = {
+        // Índices de los filtros de GET /personas/filter (ver PersonaSpecifications)
+        @Index(name = "IDX_PERSONAS_NOMBRE_EDAD", columnList = "nombre, edad"),
+        @Index(name = "IDX_PERSONAS_EDAD", columnList = "edad"),
+        @Index(name = "IDX_PERSONAS_DIRECCION", columnList = "DIRECCION_ID")
+})
 public class Persona {
 
     @Id
     @Column(name = "PERSONA_ID")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con optimizador pooled: Hibernate reserva 50 ids por viaje a la base y puede
+    // agrupar los INSERT en batches JDBC (con IDENTITY el batching de inserts se desactiva)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "persona_seq")
+    @SequenceGenerator(name = "persona_seq", sequenceName = "PERSONAS_SEQ", allocationSize = 50)
     private Long id;
 
     private String nombre;
@@ -25,4 +33,9 @@ public class Persona {
 
     @Column(unique = true)
     private String email;
+
+    // Bloqueo optimista: cada UPDATE incrementa la versión y falla si otro la cambió antes
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
 }
@@ -0,0 +1,240 @@
+package digitalers.ingest;
+
+import digitalers.dto.BatchItemResult;
+import digitalers.dto.IngestStatus;
+import digitalers.dto.PersonaDto;
+import digitalers.service.PersonaServicio;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingesta asíncrona de personas (write-behind).
+ *
+ * - POST /personas/ingest encola la persona en una cola acotada y responde 202 con un
+ *   tracking id, sin abrir una transacción por pedido.
+ * - Un único hilo escritor arma lotes de hasta "personas.ingest.batch-size" elementos y los
+ *   guarda con {@link PersonaServicio#crearPersonasEnLote}: el lote se escribe cuando se llena
+ *   o cuando el primer elemento esperó "personas.ingest.flush-interval-ms".
+ * - Con la cola llena el pedido espera como máximo "personas.ingest.offer-timeout-ms" y si
+ *   sigue sin lugar se rechaza (503), así los productores reciben contrapresión.
+ * - El resultado de cada elemento se consulta por tracking id (últimos
+ *   "personas.ingest.status-max-size" estados).
+ * - Al apagar la aplicación deja de aceptar elementos y escribe los que quedan en la cola
+ *   antes de que se cierre la base (fase posterior al apagado de Tomcat).
+ */
+@Slf4j
+@Component
+public class PersonaIngestionQueue implements SmartLifecycle {
+
+    @Qualifier("servicioDePersona")
+    @Autowired
+    private PersonaServicio personaServicio;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${personas.ingest.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${personas.ingest.offer-timeout-ms:50}")
+    private long offerTimeoutMillis;
+
+    @Value("${personas.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${personas.ingest.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    @Value("${personas.ingest.status-max-size:100000}")
+    private int statusMaxSize;
+
+    @Value("${personas.ingest.shutdown-timeout-seconds:30}")
+    private long shutdownTimeoutSeconds;
+
+    private BlockingQueue<Pendiente> queue;
+
+    private Map<String, IngestStatus> estados;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    private Counter aceptadas;
+    private Counter rechazadas;
+    private Counter escritas;
+
+    private record Pendiente(String trackingId, PersonaDto persona) {
+    }
+
+    @PostConstruct
+    void init() {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        // Se descartan los estados más viejos
+        this.estados = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IngestStatus> eldest) {
+                return size() > statusMaxSize;
+            }
+        };
+        this.aceptadas = meterRegistry.counter("personas.ingest.accepted");
+        this.rechazadas = meterRegistry.counter("personas.ingest.rejected");
+        this.escritas = meterRegistry.counter("personas.ingest.written");
+        meterRegistry.gauge("personas.ingest.queue.size", this, q -> q.queue.size());
+    }
+
+    /**
+     * Encola una persona para crearla en el próximo lote.
+     *
+     * @return Tracking id, o null si la cola está llena (o la aplicación se está apagando)
+     */
+    public String encolar(PersonaDto persona) {
+        if (!running) {
+            rechazadas.increment();
+            return null;
+        }
+        String trackingId = UUID.randomUUID().toString();
+        synchronized (estados) {
+            estados.put(trackingId, IngestStatus.pendiente(trackingId));
+        }
+        boolean encolada;
+        try {
+            encolada = queue.offer(new Pendiente(trackingId, persona), offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            encolada = false;
+        }
+        if (!encolada) {
+            synchronized (estados) {
+                estados.remove(trackingId);
+            }
+            rechazadas.increment();
+            return null;
+        }
+        aceptadas.increment();
+        return trackingId;
+    }
+
+    /**
+     * @return Estado del elemento, o null si el tracking id no existe o ya fue descartado
+     */
+    public IngestStatus estado(String trackingId) {
+        synchronized (estados) {
+            return estados.get(trackingId);
+        }
+    }
+
+    public int pendientes() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::escribirLotes, "personas-ingest");
+        writer.start();
+    }
+
+    /**
+     * Deja de aceptar elementos y espera a que el escritor vacíe la cola.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("La cola de ingesta no se vacio en {} s, quedaron {} personas sin guardar", shutdownTimeoutSeconds, queue.size());
+            writer.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Se detiene después que el servidor web (que tiene fases DEFAULT_PHASE - 1024/2048), para
+     * que no lleguen elementos nuevos mientras se vacía la cola.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void escribirLotes() {
+        List<Pendiente> lote = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pendiente primero = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (lote.size() < batchSize) {
+                    queue.drainTo(lote, batchSize - lote.size());
+                    long espera = limite - System.nanoTime();
+                    if (lote.size() >= batchSize || espera <= 0) {
+                        break;
+                    }
+                    Pendiente siguiente = queue.poll(espera, TimeUnit.NANOSECONDS);
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+                escribir(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en la ingesta de personas", e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void escribir(List<Pendiente> lote) {
+        List<IngestStatus> resultado = new ArrayList<>(lote.size());
+        try {
+            List<BatchItemResult> results = personaServicio.crearPersonasEnLote(lote.stream().map(Pendiente::persona).toList());
+            for (BatchItemResult r : results) {
+                String trackingId = lote.get(r.index()).trackingId();
+                resultado.add(r.error() == null ? IngestStatus.creada(trackingId, r.id()) : IngestStatus.error(trackingId, r.error()));
+            }
+        } catch (RuntimeException e) {
+            log.error("No se pudo guardar un lote de {} personas", lote.size(), e);
+            for (Pendiente p : lote) {
+                resultado.add(IngestStatus.error(p.trackingId(), "No se pudo guardar: " + e.getClass().getSimpleName()));
+            }
+        }
+        synchronized (estados) {
+            for (IngestStatus s : resultado) {
+                estados.put(s.trackingId(), s);
+            }
+        }
+        escritas.increment(lote.size());
+        log.debug("Lote de ingesta escrito: {} personas, {} en cola", lote.size(), queue.size());
+    }
+}
@@ -0,0 +1,133 @@
+package digitalers.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de concurrencia adaptativo por gradiente de latencia (como Gradient2 de Netflix
+ * concurrency-limits), con retroceso multiplicativo ante errores.
+ *
+ * Las respuestas se agrupan en ventanas (al menos {@link #MIN_WINDOW_NANOS} y
+ * {@link #MIN_WINDOW_SAMPLES} respuestas). Al cerrar cada ventana:
+ *
+ * - Se compara la latencia media de la ventana (corta) con una media móvil de muchas ventanas
+ *   (larga): gradiente = clamp(1.5 * larga / corta, 0.5, 1). Mientras la latencia no suba más
+ *   de un 50% el gradiente es 1; si sube (cola en H2 o en BCrypt) el límite baja en proporción.
+ * - Nuevo límite = límite * gradiente + sqrt(límite), suavizado al 20%. El término sqrt es el
+ *   margen de cola que permite crecer cuando la latencia se mantiene.
+ * - Si en la ventana no se usó ni la mitad del límite no crece: sin demanda no hay evidencia
+ *   de que el sistema soporte más.
+ * - Con errores en la ventana (excepción o 503 de la capa inferior) el límite se multiplica
+ *   por 0.9, sin mirar la latencia (AIMD).
+ */
+public class AdaptiveLimit {
+
+    static final long MIN_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    static final int MIN_WINDOW_SAMPLES = 10;
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+    private static final int LONG_WINDOW = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+
+    // Estado de las ventanas, protegido por el lock del objeto
+    private double estimatedLimit;
+    private double longRtt;
+    private int windows;
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInflight;
+    private boolean windowDropped;
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * @return true si hay lugar; en ese caso hay que llamar a {@link #release} al terminar
+     */
+    public boolean tryAcquire() {
+        for (;;) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el lugar y registra la respuesta.
+     *
+     * @param rttNanos Duración de la petición
+     * @param dropped true si terminó con error o la rechazó una capa inferior
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inflightBefore = inflight.getAndDecrement();
+        onSample(System.nanoTime(), rttNanos, inflightBefore, dropped);
+    }
+
+    synchronized void onSample(long now, long rttNanos, int inflightAtSample, boolean dropped) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInflight = Math.max(windowMaxInflight, inflightAtSample);
+        windowDropped |= dropped;
+
+        if (windowSamples < MIN_WINDOW_SAMPLES || now - windowStart < MIN_WINDOW_NANOS) {
+            return;
+        }
+
+        double shortRtt = (double) windowRttSum / windowSamples;
+        update(shortRtt, windowMaxInflight, windowDropped);
+
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInflight = 0;
+        windowDropped = false;
+    }
+
+    private void update(double shortRtt, int maxInflight, boolean dropped) {
+        // Media móvil larga: promedio simple en las primeras ventanas, luego exponencial
+        windows++;
+        longRtt = windows <= 10 ? longRtt + (shortRtt - longRtt) / windows
+                : longRtt + (shortRtt - longRtt) / LONG_WINDOW;
+        // Si la latencia bajó mucho (terminó una sobrecarga), la media larga se acerca más rápido
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        double next;
+        if (dropped) {
+            next = estimatedLimit * BACKOFF;
+        } else if (maxInflight < estimatedLimit / 2) {
+            return;
+        } else {
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+            double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            next = estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
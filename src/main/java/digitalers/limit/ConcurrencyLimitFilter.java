@@ -0,0 +1,173 @@
+package digitalers.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limita la cantidad de peticiones en curso con un límite adaptativo ({@link AdaptiveLimit})
+ * por grupo, antes de la autenticación JWT.
+ *
+ * Cuando H2 o BCrypt se vuelven lentos, en lugar de acumular peticiones en la cola de Tomcat
+ * (donde la latencia crece para todos) las que exceden el límite se rechazan de inmediato con
+ * 503 y Retry-After. Las admitidas mantienen una latencia acotada.
+ *
+ * Grupos:
+ * - login: POST /login y POST /login/refresh
+ * - personas: /personas y /personas/**, salvo la exportación en streaming (dura minutos y no
+ *   es una medida de la latencia) y la ingesta (tiene su propia cola acotada)
+ *
+ * Las peticiones asíncronas (el login espera a BCrypt fuera del hilo de Tomcat) liberan su
+ * lugar cuando termina la respuesta, no cuando vuelve el hilo.
+ *
+ * Métricas: concurrency.limit, concurrency.inflight y concurrency.rejected con el tag "group".
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${concurrency.limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${concurrency.limit.login.initial:8}")
+    private int loginInitial;
+
+    @Value("${concurrency.limit.login.min:2}")
+    private int loginMin;
+
+    @Value("${concurrency.limit.login.max:64}")
+    private int loginMax;
+
+    @Value("${concurrency.limit.personas.initial:20}")
+    private int personasInitial;
+
+    @Value("${concurrency.limit.personas.min:4}")
+    private int personasMin;
+
+    @Value("${concurrency.limit.personas.max:200}")
+    private int personasMax;
+
+    private AdaptiveLimit login;
+    private AdaptiveLimit personas;
+    private Counter loginRejected;
+    private Counter personasRejected;
+
+    @PostConstruct
+    void init() {
+        this.login = new AdaptiveLimit(loginInitial, loginMin, loginMax);
+        this.personas = new AdaptiveLimit(personasInitial, personasMin, personasMax);
+        this.loginRejected = register("login", login);
+        this.personasRejected = register("personas", personas);
+    }
+
+    private Counter register(String group, AdaptiveLimit limit) {
+        meterRegistry.gauge("concurrency.limit", Tags.of("group", group), limit, AdaptiveLimit::getLimit);
+        meterRegistry.gauge("concurrency.inflight", Tags.of("group", group), limit, AdaptiveLimit::getInflight);
+        return Counter.builder("concurrency.rejected")
+                .description("Peticiones rechazadas por el límite de concurrencia")
+                .tag("group", group)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || group(request) == null;
+    }
+
+    /**
+     * @return Límite del grupo de la petición, o null si no se limita
+     */
+    private AdaptiveLimit group(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if ("POST".equals(request.getMethod()) && ("/login".equals(path) || "/login/refresh".equals(path))) {
+            return login;
+        }
+        if (path.equals("/personas") || path.startsWith("/personas/")) {
+            if (path.equals("/personas/export") || path.startsWith("/personas/ingest")) {
+                return null;
+            }
+            return personas;
+        }
+        return null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        AdaptiveLimit limit = group(request);
+        if (!limit.tryAcquire()) {
+            (limit == login ? loginRejected : personasRejected).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Servidor saturado, reintente en unos segundos");
+            return;
+        }
+
+        final long start = System.nanoTime();
+        final AtomicBoolean released = new AtomicBoolean();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                // La respuesta termina en otro hilo: se libera al completarse
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        release(limit, start, released, isDropped(response));
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        release(limit, start, released, true);
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        release(limit, start, released, true);
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                release(limit, start, released, failed || isDropped(response));
+            }
+        }
+    }
+
+    /**
+     * 503 de una capa inferior (pool de BCrypt lleno, etc.): señal de saturación.
+     */
+    private static boolean isDropped(HttpServletResponse response) {
+        return response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value();
+    }
+
+    private static void release(AdaptiveLimit limit, long start, AtomicBoolean released, boolean dropped) {
+        if (released.compareAndSet(false, true)) {
+            limit.release(System.nanoTime() - start, dropped);
+        }
+    }
+}
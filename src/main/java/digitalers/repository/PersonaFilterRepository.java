@@ -0,0 +1,16 @@
+package digitalers.repository;
+
+import digitalers.dto.PersonaView;
+import digitalers.entity.Persona;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface PersonaFilterRepository {
+
+    /**
+     * Personas que cumplen la especificación, proyectadas a PersonaView y ordenadas por id.
+     * Devuelve un Slice: no ejecuta COUNT(*), lee un registro de más para saber si hay otra página.
+     */
+    Slice<PersonaView> filtrar(Specification<Persona> spec, Pageable pageable);
+}
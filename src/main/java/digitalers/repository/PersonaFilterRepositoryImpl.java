@@ -0,0 +1,54 @@
+package digitalers.repository;
+
+import digitalers.dto.PersonaView;
+import digitalers.entity.Direccion;
+import digitalers.entity.Persona;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Implementación del fragmento {@link PersonaFilterRepository} con Criteria API.
+ */
+public class PersonaFilterRepositoryImpl implements PersonaFilterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<PersonaView> filtrar(Specification<Persona> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PersonaView> query = cb.createQuery(PersonaView.class);
+        Root<Persona> p = query.from(Persona.class);
+        Join<Persona, Direccion> d = PersonaSpecifications.direccion(p);
+
+        query.select(cb.construct(PersonaView.class,
+                p.get("id"), p.get("nombre"), p.get("edad"),
+                d.get("id"), d.get("calle"), d.get("barrio"), d.get("altura"),
+                p.get("telefono"), p.get("email"), p.get("version")));
+        Predicate predicate = spec == null ? null : spec.toPredicate(p, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(p.get("id")));
+
+        int size = pageable.getPageSize();
+        List<PersonaView> personas = entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(pageable.getOffset()))
+                .setMaxResults(size + 1)
+                .getResultList();
+
+        boolean hasNext = personas.size() > size;
+        return new SliceImpl<>(hasNext ? personas.subList(0, size) : personas, pageable, hasNext);
+    }
+}
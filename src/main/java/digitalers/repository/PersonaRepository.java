@@ -1,19 +1,70 @@
 package digitalers.repository;
 
+import digitalers.dto.PersonaView;
 import digitalers.entity.Persona;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface PersonaRepository extends JpaRepository<Persona, Long> {
+public interface PersonaRepository extends JpaRepository<Persona, Long>, PersonaFilterRepository {
 
+    // ===== Modelo de lectura (proyecciones PersonaView, un solo SELECT con JOIN) =====
+
+    String PERSONA_VIEW = "select new digitalers.dto.PersonaView(p.id, p.nombre, p.edad, d.id, d.calle, d.barrio, d.altura, p.telefono, p.email, p.version) "
+            + "from Persona p join p.direccion d ";
+
+    // Paginación keyset: siguiente página a partir del último PERSONA_ID visto (sin OFFSET ni COUNT)
+    @Query(PERSONA_VIEW + "where p.id > :afterId order by p.id")
+    List<PersonaView> findViewsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // Paginación por offset opcional; al devolver Slice no se ejecuta el COUNT(*)
+    @Query(PERSONA_VIEW)
+    Slice<PersonaView> findViewSlice(Pageable pageable);
+
+    @Query(PERSONA_VIEW + "where p.id = :id")
+    Optional<PersonaView> findViewById(@Param("id") Long id);
+
+    // ===== Entidades =====
+
+    // Recorre toda la tabla con un cursor JDBC (fetch size) en lugar de materializar una lista.
+    // Debe consumirse dentro de una transacción y cerrarse al terminar.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select p from Persona p join fetch p.direccion order by p.id")
+    Stream<Persona> streamAll();
+
+    // Campos indexados por el buscador (id, nombre, email, telefono) para construir el índice al iniciar
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select p.id, p.nombre, p.email, p.telefono from Persona p")
+    Stream<Object[]> streamSearchFields();
+
+    // Carga un lote de personas junto con su dirección en una sola consulta
+    @Query("select p from Persona p join fetch p.direccion where p.id in :ids")
+    List<Persona> findAllWithDireccionByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.id from Persona p where p.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Borrado masivo en una sola sentencia DELETE (sin select previo por entidad)
+    @Modifying
+    @Query("delete from Persona p where p.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 
 //    List<Persona> findDistinctByNombreAndEdad(String nombre, int edad);
 //
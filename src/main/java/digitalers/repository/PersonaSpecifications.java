@@ -0,0 +1,83 @@
+package digitalers.repository;
+
+import digitalers.dto.PersonaFiltro;
+import digitalers.entity.Direccion;
+import digitalers.entity.Persona;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Predicados combinables para filtrar personas.
+ *
+ * Cada filtro está respaldado por un índice (ver @Table(indexes) en Persona y Direccion):
+ * - nombre / nombre + edad -> IDX_PERSONAS_NOMBRE_EDAD
+ * - edad                   -> IDX_PERSONAS_EDAD
+ * - barrio / barrio + calle -> IDX_DIRECCIONES_BARRIO_CALLE
+ * - calle                  -> IDX_DIRECCIONES_CALLE
+ */
+public final class PersonaSpecifications {
+
+    private PersonaSpecifications() {
+    }
+
+    public static Specification<Persona> nombre(String nombre) {
+        return (root, query, cb) -> cb.equal(root.get("nombre"), nombre);
+    }
+
+    public static Specification<Persona> edadDesde(Integer edad) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("edad"), edad);
+    }
+
+    public static Specification<Persona> edadHasta(Integer edad) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("edad"), edad);
+    }
+
+    public static Specification<Persona> barrio(String barrio) {
+        return (root, query, cb) -> cb.equal(direccion(root).get("barrio"), barrio);
+    }
+
+    public static Specification<Persona> calle(String calle) {
+        return (root, query, cb) -> cb.equal(direccion(root).get("calle"), calle);
+    }
+
+    /**
+     * Combina (AND) los filtros informados.
+     */
+    public static Specification<Persona> de(PersonaFiltro filtro) {
+        List<Specification<Persona>> specs = new ArrayList<>();
+        if (filtro.nombre() != null && !filtro.nombre().isBlank()) {
+            specs.add(nombre(filtro.nombre()));
+        }
+        if (filtro.edadMin() != null) {
+            specs.add(edadDesde(filtro.edadMin()));
+        }
+        if (filtro.edadMax() != null) {
+            specs.add(edadHasta(filtro.edadMax()));
+        }
+        if (filtro.barrio() != null && !filtro.barrio().isBlank()) {
+            specs.add(barrio(filtro.barrio()));
+        }
+        if (filtro.calle() != null && !filtro.calle().isBlank()) {
+            specs.add(calle(filtro.calle()));
+        }
+        return Specification.allOf(specs);
+    }
+
+    /**
+     * Devuelve el join con DIRECCIONES ya presente en la consulta o lo crea, para que todos
+     * los filtros y la proyección usen el mismo join.
+     */
+    @SuppressWarnings("unchecked")
+    static Join<Persona, Direccion> direccion(Root<Persona> root) {
+        for (Join<Persona, ?> join : root.getJoins()) {
+            if ("direccion".equals(join.getAttribute().getName())) {
+                return (Join<Persona, Direccion>) join;
+            }
+        }
+        return root.join("direccion");
+    }
+}
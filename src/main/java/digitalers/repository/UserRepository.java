@@ -1,11 +1,14 @@
 package digitalers.repository;
 
 import digitalers.entity.UserApi;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserApi, Long> {
 
+    // Trae el usuario junto con sus roles en una sola consulta (evita la carga lazy de authorities)
+    @EntityGraph(attributePaths = "roles")
     UserApi findByUsername(String username);
 }
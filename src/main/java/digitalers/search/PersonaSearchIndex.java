@@ -0,0 +1,334 @@
+package digitalers.search;
+
+import digitalers.dto.PersonaSearchResult;
+import digitalers.repository.PersonaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido en memoria de trigramas sobre nombre, email y teléfono de las personas.
+ *
+ * - Se construye completo al iniciar la aplicación (ApplicationReadyEvent).
+ * - PersonaServiceImpl lo mantiene actualizado en cada alta, modificación y baja
+ *   (los cambios se aplican después del commit de la transacción).
+ * - Una búsqueda intersecta las listas de los trigramas del texto, empezando por la más
+ *   corta, y verifica que el texto aparezca en algún campo. Equivale a un LIKE '%q%' sin
+ *   recorrer la tabla.
+ *
+ * El tamaño aproximado del índice y el tiempo de la última reconstrucción se publican como
+ * métricas personas.search.index.*.
+ */
+@Slf4j
+@Component
+public class PersonaSearchIndex {
+
+    /**
+     * Largo de los n-gramas indexados. Las búsquedas deben tener al menos esta cantidad de caracteres.
+     */
+    public static final int N = 3;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    @Autowired
+    private PersonaRepository personaRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    private long postingEntries;
+
+    private volatile long lastRebuildMillis;
+
+    /**
+     * Campos normalizados (minúsculas, sin acentos) de una persona indexada.
+     */
+    private record Document(String nombre, String email, String telefono) {
+
+        Stream<String> fields() {
+            return Stream.of(nombre, email, telefono);
+        }
+    }
+
+    private record Hit(long id, int score) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            postingEntries = 0;
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = personaRepository.streamSearchFields()) {
+                    rows.forEach(row -> addInternal((Long) row[0], (String) row[1], (String) row[2], (String) row[3]));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastRebuildMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Indice de busqueda de personas construido: {} personas, {} trigramas, ~{} KB en {} ms",
+                documents.size(), postings.size(), estimatedBytes() / 1024, lastRebuildMillis);
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        meterRegistry.gauge("personas.search.index.documents", this, index -> index.documents.size());
+        meterRegistry.gauge("personas.search.index.ngrams", this, index -> index.postings.size());
+        meterRegistry.gauge("personas.search.index.bytes", this, PersonaSearchIndex::estimatedBytes);
+        meterRegistry.gauge("personas.search.index.rebuild.millis", this, PersonaSearchIndex::lastRebuildMillis);
+    }
+
+    /**
+     * Agrega o reemplaza una persona en el índice (después del commit si hay una transacción activa).
+     */
+    public void index(Long id, String nombre, String email, String telefono) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeInternal(id);
+                addInternal(id, nombre, email, telefono);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Actualiza solo los campos informados de una persona ya indexada; los null conservan el
+     * valor anterior (después del commit si hay una transacción activa).
+     */
+    public void update(Long id, String nombre, String email, String telefono) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                Document actual = documents.get(id);
+                removeInternal(id);
+                addInternal(id,
+                        nombre != null || actual == null ? nombre : actual.nombre(),
+                        email != null || actual == null ? email : actual.email(),
+                        telefono != null || actual == null ? telefono : actual.telefono());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Quita una persona del índice (después del commit si hay una transacción activa).
+     */
+    public void remove(Long id) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeInternal(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Busca personas cuyo nombre, email o teléfono contengan el texto indicado.
+     *
+     * Orden de relevancia: coincidencia exacta, luego al inicio del campo o de una palabra,
+     * luego en cualquier posición; a igual tipo pesa más nombre que email y email que teléfono.
+     *
+     * @param q Texto a buscar (al menos {@link #N} caracteres)
+     * @param page Página, desde 0
+     * @param size Tamaño de página
+     * @return Ids de la página pedida ordenados por relevancia
+     */
+    public PersonaSearchResult search(String q, int page, int size) {
+        long start = System.nanoTime();
+        String query = normalize(q);
+        List<Hit> hits = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams(query)) {
+                Set<Long> list = postings.get(gram);
+                if (list == null) {
+                    lists = List.of();
+                    break;
+                }
+                lists.add(list);
+            }
+            if (!lists.isEmpty()) {
+                lists.sort(Comparator.comparingInt(Set::size));
+                for (Long id : lists.get(0)) {
+                    if (containsAll(lists, id)) {
+                        int score = score(documents.get(id), query);
+                        if (score > 0) {
+                            hits.add(new Hit(id, score));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparingInt(Hit::score).reversed().thenComparingLong(Hit::id));
+        // En long: con page muy grande page * size desborda int y el offset quedaria negativo
+        int from = (int) Math.min((long) page * size, hits.size());
+        int to = Math.min(from + size, hits.size());
+        List<Long> ids = new ArrayList<>(to - from);
+        for (Hit hit : hits.subList(from, to)) {
+            ids.add(hit.id());
+        }
+        return new PersonaSearchResult(q, hits.size(), page, size, ids, (System.nanoTime() - start) / 1000);
+    }
+
+    /**
+     * Estimación del heap ocupado por el índice, en bytes (entradas de HashMap/HashSet,
+     * Longs y Strings de los trigramas y de los campos guardados).
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = postingEntries * (32 + 16 + 8);
+            bytes += postings.size() * (32 + 8 + 56 + 64L);
+            for (Document document : documents.values()) {
+                bytes += 32 + 16 + 24 + document.fields().mapToLong(f -> f == null ? 0 : 40 + f.length()).sum();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long lastRebuildMillis() {
+        return lastRebuildMillis;
+    }
+
+    private void addInternal(Long id, String nombre, String email, String telefono) {
+        Document document = new Document(normalize(nombre), normalize(email), normalize(telefono));
+        documents.put(id, document);
+        for (String gram : documentGrams(document)) {
+            if (postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id)) {
+                postingEntries++;
+            }
+        }
+    }
+
+    private void removeInternal(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String gram : documentGrams(document)) {
+            Set<Long> list = postings.get(gram);
+            if (list != null && list.remove(id)) {
+                postingEntries--;
+                if (list.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> documentGrams(Document document) {
+        Set<String> grams = new LinkedHashSet<>();
+        document.fields().forEach(field -> grams.addAll(grams(field)));
+        return grams;
+    }
+
+    private static Set<String> grams(String value) {
+        if (value == null || value.length() < N) {
+            return Collections.emptySet();
+        }
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + N <= value.length(); i++) {
+            grams.add(value.substring(i, i + N));
+        }
+        return grams;
+    }
+
+    private static boolean containsAll(List<Set<Long>> lists, Long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int score(Document document, String query) {
+        return Math.max(score(document.nombre(), query, 3),
+                Math.max(score(document.email(), query, 2), score(document.telefono(), query, 1)));
+    }
+
+    private static int score(String field, String query, int weight) {
+        if (field == null) {
+            return 0;
+        }
+        int position = field.indexOf(query);
+        if (position < 0) {
+            return 0;
+        }
+        if (field.length() == query.length()) {
+            return 30 + weight;
+        }
+        if (position == 0 || !Character.isLetterOrDigit(field.charAt(position - 1))) {
+            return 20 + weight;
+        }
+        return 10 + weight;
+    }
+
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,20 +1,43 @@
 package digitalers.service;
 
+import digitalers.dto.BatchItemResult;
 import digitalers.dto.PersonaDto;
+import digitalers.dto.PersonaFiltro;
+import digitalers.dto.PersonaPatchDto;
+import digitalers.dto.PersonaSearchResult;
+import digitalers.dto.PersonaUpdateDto;
+import digitalers.dto.PersonaView;
 import digitalers.entity.Persona;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface PersonaServicio {
 
-    ResponseEntity<?> todasLasPersonas();
+    ResponseEntity<?> todasLasPersonas(String cursor, Integer page, int limit, MediaType formato);
 
-    Persona personaPorId(Long id);
+    PersonaView personaPorId(Long id);
 
     Persona crearPersonas(PersonaDto p);
 
     void eliminarPorId(Long id);
 
     Persona actualizarPersona(PersonaDto p, Long d);
+
+    ResponseEntity<?> modificarPersona(Long id, PersonaPatchDto p);
+
+    void exportarPersonas(String formato, OutputStream out) throws IOException;
+
+    List<BatchItemResult> crearPersonasEnLote(List<PersonaDto> personas);
+
+    List<BatchItemResult> actualizarPersonasEnLote(List<PersonaUpdateDto> personas);
+
+    List<BatchItemResult> eliminarEnLote(List<Long> ids);
+
+    PersonaSearchResult buscarPersonas(String q, int page, int size);
+
+    ResponseEntity<?> filtrarPersonas(PersonaFiltro filtro, int page, int limit, MediaType formato);
 }
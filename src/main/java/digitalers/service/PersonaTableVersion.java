@@ -0,0 +1,82 @@
+package digitalers.service;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versión de la tabla PERSONAS para los GET condicionales (ETag / Last-Modified).
+ *
+ * PersonaServiceImpl llama a {@link #cambio()} en cada alta, modificación y baja; la versión
+ * avanza después del commit, así un cliente nunca recibe datos viejos con un ETag nuevo.
+ * El ETag incluye el instante de arranque para que no se repita después de reiniciar, y el
+ * formato cuando no es JSON (cada representación tiene su propio ETag).
+ *
+ * La versión vive en memoria: supone una sola instancia escribiendo en la base.
+ */
+@Component
+public class PersonaTableVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final AtomicLong lastModified = new AtomicLong(System.currentTimeMillis());
+
+    public void cambio() {
+        // lastModified primero: quien ve la versión nueva ve también su instante
+        Runnable avanzar = () -> {
+            lastModified.accumulateAndGet(System.currentTimeMillis(), PersonaTableVersion::siguienteInstante);
+            version.incrementAndGet();
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    avanzar.run();
+                }
+            });
+        } else {
+            avanzar.run();
+        }
+    }
+
+    /**
+     * ETag del listado de personas. Es débil (W/) porque Tomcat no comprime las respuestas con
+     * ETag fuerte; para If-None-Match la comparación es débil de todos modos.
+     */
+    public String etag(MediaType formato) {
+        return "W/\"personas-" + epoch + "-" + version.get() + variante(formato) + "\"";
+    }
+
+    /**
+     * Instante de la última modificación (el header Last-Modified tiene resolución de segundos,
+     * por eso los clientes deberían preferir If-None-Match).
+     */
+    public long lastModified() {
+        return lastModified.get();
+    }
+
+    /**
+     * If-Modified-Since se compara truncado a segundos: un cambio en el mismo segundo que el
+     * anterior tiene que pasar al segundo siguiente, si no el cliente recibiría 304 con datos
+     * viejos. Puede quedar hasta un segundo en el futuro.
+     */
+    private static long siguienteInstante(long anterior, long ahora) {
+        return Math.max(ahora, (anterior / 1000 + 1) * 1000);
+    }
+
+    /**
+     * ETag fuerte de una persona, derivado de su columna VERSION.
+     */
+    public static String etag(Long id, Long version, MediaType formato) {
+        return "\"persona-" + id + "-" + version + variante(formato) + "\"";
+    }
+
+    private static String variante(MediaType formato) {
+        return MediaType.APPLICATION_JSON.equals(formato) ? "" : "-" + formato.getSubtype();
+    }
+}
@@ -0,0 +1,16 @@
+package digitalers.service;
+
+/**
+ * Evento que se publica (ApplicationEventPublisher) cuando cambian los datos de seguridad
+ * de un usuario: contraseña, estado enabled o roles.
+ *
+ * Lo escuchan el cache de usuarios, el registro de security stamps y el registro de refresh
+ * tokens para invalidar la información que tienen guardada de ese usuario.
+ *
+ * La aplicación todavía no tiene código que modifique usuarios o roles, por lo que nada lo
+ * publica: es el punto de enganche que debe usar la futura administración de usuarios.
+ *
+ * @param username Usuario modificado
+ */
+public record UserChangedEvent(String username) {
+}
@@ -10,4 +10,6 @@ public interface UserDetailService extends UserDetailsService {
     User loadUserByUsername(String username) throws UsernameNotFoundException;
 
     UserApi findUserByUsername(String username) throws UsernameNotFoundException;
+
+    User toUser(UserApi usuario) throws UsernameNotFoundException;
 }
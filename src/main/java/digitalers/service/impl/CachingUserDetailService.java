@@ -0,0 +1,214 @@
+package digitalers.service.impl;
+
+import digitalers.datasource.ReplicaLagMonitor;
+import digitalers.entity.UserApi;
+import digitalers.service.UserChangedEvent;
+import digitalers.service.UserDetailService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorador con cache de {@link UserDetailService}.
+ *
+ * - Guarda los {@link User} ya armados (usuario + roles) en un mapa LRU acotado.
+ * - Cada entrada vence a los "users.cache.ttl-seconds" segundos.
+ * - Se invalida explícitamente al recibir un {@link UserChangedEvent}. Hoy ningún código de la
+ *   aplicación modifica usuarios o roles: el evento es el punto de enganche para la futura
+ *   administración de usuarios, que debe publicarlo después de cada cambio.
+ * - Publica los contadores users.cache.hits, users.cache.misses y users.cache.evictions y el
+ *   tamaño en users.cache.size (también disponibles en {@link #stats()}).
+ *
+ * Una carga que estaba en curso cuando llegó una invalidación no se guarda (se compara un
+ * contador de invalidaciones tomado antes de consultar), así no vuelve a quedar en el cache el
+ * usuario anterior al cambio. Con réplica de lectura, además, se recuerda el instante de las
+ * últimas invalidaciones de cada usuario y solo se guarda una carga que ya las incluía (mismo
+ * criterio que PersonaJsonCache).
+ *
+ * Al ser @Primary, es la implementación que reciben el filtro JWT, el login y Spring Security.
+ */
+@Slf4j
+@Primary
+@Service
+public class CachingUserDetailService implements UserDetailService {
+
+    @Qualifier("userDetailServiceImpl")
+    @Autowired
+    private UserDetailService delegate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLag;
+
+    @Value("${users.cache.max-size:1000}")
+    private int maxSize;
+
+    @Value("${users.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private Map<String, CachedUser> cache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /** Invalidaciones explícitas (evict/evictAll) hasta ahora */
+    private long invalidaciones;
+
+    /** username -> instante de la invalidación, mientras una lectura de la réplica pueda no verla */
+    private final Map<String, Long> recientes = new HashMap<>();
+
+    /** Las invalidaciones anteriores a este instante ya se descartaron de "recientes" */
+    private long descartadasHasta = Long.MIN_VALUE;
+
+    private record CachedUser(User user, long expiresAt) {
+    }
+
+    /**
+     * Contadores del cache.
+     */
+    public record CacheStats(long hits, long misses, long evictions, int size) {
+    }
+
+    @PostConstruct
+    void init() {
+        // accessOrder = true -> se descarta el usuario consultado hace más tiempo (LRU)
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                if (size() > maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        FunctionCounter.builder("users.cache.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("users.cache.misses", misses, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("users.cache.evictions", evictions, AtomicLong::get).register(meterRegistry);
+        meterRegistry.gauge("users.cache.size", this, CachingUserDetailService::size);
+    }
+
+    @Override
+    public User loadUserByUsername(String username) throws UsernameNotFoundException {
+        final long now = System.currentTimeMillis();
+        final long marca;
+
+        synchronized (this) {
+            CachedUser cached = cache.get(username);
+            if (cached != null) {
+                if (cached.expiresAt() > now) {
+                    hits.incrementAndGet();
+                    return copyOf(cached.user());
+                }
+                cache.remove(username);
+                evictions.incrementAndGet();
+            }
+            marca = invalidaciones;
+        }
+        final long visibleHasta = replicaLag.consistentUpTo();
+
+        misses.incrementAndGet();
+        User user = delegate.loadUserByUsername(username);
+
+        if (maxSize > 0) {
+            synchronized (this) {
+                // Si hubo una invalidación durante la consulta, lo leído puede ser anterior al cambio
+                if (invalidaciones == marca && incluida(username, visibleHasta)) {
+                    cache.put(username, new CachedUser(user, now + ttlSeconds * 1000));
+                }
+            }
+        }
+        return copyOf(user);
+    }
+
+    @Override
+    public UserApi findUserByUsername(String username) throws UsernameNotFoundException {
+        return delegate.findUserByUsername(username);
+    }
+
+    @Override
+    public User toUser(UserApi usuario) throws UsernameNotFoundException {
+        return delegate.toUser(usuario);
+    }
+
+    /**
+     * Elimina del cache al usuario modificado.
+     *
+     * @param event Evento con el username del usuario que cambió
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.username());
+    }
+
+    public synchronized void evict(String username) {
+        invalidaciones++;
+        if (replicaLag.isEnabled()) {
+            // Las que ya ve cualquier lectura nueva no hacen falta
+            long visibleHasta = replicaLag.consistentUpTo();
+            recientes.values().removeIf(instante -> instante < visibleHasta);
+            descartadasHasta = Math.max(descartadasHasta, visibleHasta);
+            recientes.put(username, System.currentTimeMillis());
+        }
+        if (cache.remove(username) != null) {
+            evictions.incrementAndGet();
+            log.debug("Usuario {} eliminado del cache", username);
+        }
+    }
+
+    public synchronized void evictAll() {
+        invalidaciones++;
+        if (replicaLag.isEnabled()) {
+            recientes.clear();
+            descartadasHasta = Math.max(descartadasHasta, System.currentTimeMillis());
+        }
+        evictions.addAndGet(cache.size());
+        cache.clear();
+    }
+
+    /**
+     * @return true si una lectura que ve los commits anteriores a "visibleHasta" incluye la
+     * última invalidación del usuario
+     */
+    private boolean incluida(String username, long visibleHasta) {
+        if (visibleHasta < descartadasHasta) {
+            return false;
+        }
+        Long invalidado = recientes.get(username);
+        return invalidado == null || invalidado < visibleHasta;
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), cache.size());
+    }
+
+    /**
+     * Devuelve una copia del usuario cacheado. Spring Security borra la contraseña del
+     * principal después de autenticar (eraseCredentials), por eso nunca se entrega la
+     * instancia que queda guardada en el cache.
+     */
+    private static User copyOf(User user) {
+        return (User) User.withUserDetails(user).build();
+    }
+}
@@ -1,46 +1,228 @@
 package digitalers.service.impl;
 
+import digitalers.cache.PersonaJsonCache;
+import digitalers.dto.BatchItemResult;
 import digitalers.dto.PersonaDto;
+import digitalers.dto.PersonaFiltro;
+import digitalers.dto.PersonaPatchDto;
+import digitalers.dto.PersonaSearchResult;
+import digitalers.dto.PersonaUpdateDto;
+import digitalers.dto.PersonaView;
 import digitalers.entity.Direccion;
 import digitalers.entity.Persona;
 import digitalers.repository.DireccionRepository;
 import digitalers.repository.PersonaRepository;
+import digitalers.repository.PersonaSpecifications;
+import digitalers.search.PersonaSearchIndex;
 import digitalers.service.PersonaServicio;
+import digitalers.service.PersonaTableVersion;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+/**
+ * Todos los métodos públicos se miden con @Timed en "personas.service" (tags method y exception).
+ *
+ * Las lecturas son transacciones de solo lectura: con réplica configurada se ejecutan en ella
+ * (ver ReadWriteRoutingDataSource). Las altas y modificaciones leen dentro de su transacción de
+ * escritura, en la primaria.
+ */
+@Slf4j
+@Timed(value = "personas.service", description = "Tiempo de cada método de PersonaServicio")
 @Service("servicioDePersona")
 public class PersonaServiceImpl implements PersonaServicio {
 
+    /**
+     * Header con el cursor opaco de la página siguiente (solo si hay más resultados).
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Header con el número de la página siguiente en la paginación por offset.
+     */
+    public static final String NEXT_PAGE_HEADER = "X-Next-Page";
+
+    private static final int MAX_LIMIT = 500;
+
+    /**
+     * Cada cuántas filas exportadas se hace flush de la respuesta.
+     */
+    private static final int EXPORT_FLUSH_EVERY = 1000;
+
     @Autowired
     PersonaRepository personaRepository;
 
     @Autowired
     DireccionRepository direccionRepository;
 
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    PersonaSearchIndex searchIndex;
+
+    @Autowired
+    PersonaTableVersion tableVersion;
+
+    @Autowired
+    PersonaJsonCache jsonCache;
+
+    /**
+     * Cantidad de elementos de un lote que se escriben en cada transacción.
+     */
+    @Value("${personas.batch.chunk-size:500}")
+    int chunkSize;
+
+    /**
+     * Devuelve una página de personas ordenadas por id.
+     *
+     * - Por defecto usa paginación keyset: "cursor" es el valor opaco recibido en el header
+     *   X-Next-Cursor de la página anterior, y la consulta es "id > último id" con LIMIT,
+     *   por lo que el costo no crece con la profundidad de la página.
+     * - Si se indica "page" usa paginación por offset (sin COUNT).
+     *
+     * Se lee un registro más que "limit" para saber si existe una página siguiente.
+     * Se leen proyecciones PersonaView (un solo SELECT con JOIN a DIRECCIONES); en JSON la
+     * respuesta se arma con los fragmentos de PersonaJsonCache.
+     *
+     * @param formato JSON, CBOR o Smile (negociado por el controlador)
+     */
+    @Transactional(readOnly = true)
     @Override
-    public ResponseEntity<?> todasLasPersonas() {
+    public ResponseEntity<?> todasLasPersonas(String cursor, Integer page, int limit, MediaType formato) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        PersonaJsonCache.Marca marca = jsonCache.marca();
         try{
-            List<Persona> personas = personaRepository.findAll();
+            if (page != null) {
+                if (fueraDeRango(page, size)) {
+                    return cuerpo(ResponseEntity.ok(), List.of(), marca, formato);
+                }
+                Slice<PersonaView> slice = personaRepository.findViewSlice(PageRequest.of(Math.max(page, 0), size, Sort.by("id")));
+                if (!slice.hasContent() && slice.isFirst()) {
+                    return ResponseEntity.notFound().build();
+                }
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                if (slice.hasNext()) {
+                    response.header(NEXT_PAGE_HEADER, String.valueOf(slice.getNumber() + 1));
+                }
+                return cuerpo(response, slice.getContent(), marca, formato);
+            }
+
+            Long afterId = 0L;
+            if (cursor != null && (afterId = decodeCursor(cursor)) == null) {
+                return ResponseEntity.badRequest().body("Cursor invalido");
+            }
+            List<PersonaView> personas = personaRepository.findViewsAfter(afterId, Limit.of(size + 1));
             if (!personas.isEmpty()){
-                return ResponseEntity.ok().body(personas);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                if (personas.size() > size) {
+                    personas = personas.subList(0, size);
+                    response.header(NEXT_CURSOR_HEADER, encodeCursor(personas.get(size - 1).id()));
+                }
+                return cuerpo(response, personas, marca, formato);
             }else {
                 return ResponseEntity.notFound().build();
             }
         }catch (Exception e){
-            e.printStackTrace();
+            log.error("Error al listar personas", e);
             return ResponseEntity.internalServerError().body("Ocurrio un error interno");
         }
     }
 
+    /**
+     * En JSON concatena los fragmentos cacheados; en los formatos binarios serializa Jackson.
+     */
+    private ResponseEntity<?> cuerpo(ResponseEntity.BodyBuilder response, List<PersonaView> personas, PersonaJsonCache.Marca marca,
+                                     MediaType formato) {
+        response.varyBy(HttpHeaders.ACCEPT);
+        if (MediaType.APPLICATION_JSON.equals(formato)) {
+            return response.contentType(MediaType.APPLICATION_JSON).body(jsonCache.toJsonArray(personas, marca));
+        }
+        return response.contentType(formato).body(personas);
+    }
+
+    /**
+     * El offset de las consultas (setFirstResult) es int: una página cuyo offset no entra en un
+     * int está necesariamente vacía y se responde sin consultar la base.
+     */
+    private static boolean fueraDeRango(int page, int size) {
+        return page > (Integer.MAX_VALUE - size - 1) / size;
+    }
+
+    private static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("p:" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return Último id visto, o null si el cursor no es válido
+     */
+    private static Long decodeCursor(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return value.startsWith("p:") ? Long.valueOf(value.substring(2)) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Transactional(readOnly = true)
     @Override
-    public Persona personaPorId(Long id) {
-        return personaRepository.findById(id).orElse(null);
+    public PersonaView personaPorId(Long id) {
+        return personaRepository.findViewById(id).orElse(null);
     }
 
+    @Transactional
     @Override
     public Persona crearPersonas(PersonaDto p) {
         Persona newPersona = new Persona();
@@ -51,24 +233,477 @@ public class PersonaServiceImpl implements PersonaServicio {
         Direccion direccion = direccionRepository.findById(p.direccionId()).orElse(null);
         newPersona.setDireccion(direccion);
 
-        return personaRepository.save(newPersona);
+        Persona saved = personaRepository.save(newPersona);
+        searchIndex.index(saved.getId(), saved.getNombre(), saved.getEmail(), saved.getTelefono());
+        tableVersion.cambio();
+        return saved;
     }
 
+    @Transactional
     @Override
     public void eliminarPorId(Long id) {
-        personaRepository.deleteById(id);
+        personaRepository.deleteByIdIn(List.of(id));
+        searchIndex.remove(id);
+        jsonCache.evict(id);
+        tableVersion.cambio();
     }
 
+    @Transactional
     @Override
     public Persona actualizarPersona(PersonaDto p, Long id) {
-        Persona updatedPersona = new Persona();
-        updatedPersona.setId(id);
+        // Con @Version una entidad nueva con id y sin versión no se puede pasar a save()
+        Persona updatedPersona = personaRepository.findById(id).orElseGet(Persona::new);
         updatedPersona.setEdad(p.edad());
         updatedPersona.setNombre(p.nombre());
         updatedPersona.setEmail(p.email());
         updatedPersona.setTelefono(p.telefono());
         Direccion direccion = direccionRepository.findById(p.direccionId()).orElse(null);
         updatedPersona.setDireccion(direccion);
-        return personaRepository.save(updatedPersona);
+        Persona saved = personaRepository.save(updatedPersona);
+        searchIndex.index(saved.getId(), saved.getNombre(), saved.getEmail(), saved.getTelefono());
+        jsonCache.evict(saved.getId());
+        tableVersion.cambio();
+        return saved;
+    }
+
+    /**
+     * Actualización parcial con bloqueo optimista, en una sola sentencia y sin SELECT previo:
+     *
+     *   UPDATE PERSONAS SET <solo los campos informados>, VERSION = VERSION + 1
+     *   WHERE PERSONA_ID = ? AND VERSION = ?
+     *
+     * La dirección se referencia por id (FK) sin cargarla. Si no se actualizó ninguna fila se
+     * distingue entre persona inexistente (404) y versión desactualizada (409).
+     *
+     * @return 200 con el id y la nueva versión, 400, 404 o 409
+     */
+    @Override
+    public ResponseEntity<?> modificarPersona(Long id, PersonaPatchDto p) {
+        if (p.version() == null) {
+            return ResponseEntity.badRequest().body("Debe indicar la version de la persona");
+        }
+        try {
+            Integer filas = transactionTemplate.execute(status -> {
+                CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+                CriteriaUpdate<Persona> update = cb.createCriteriaUpdate(Persona.class);
+                Root<Persona> persona = update.from(Persona.class);
+                if (p.nombre() != null) {
+                    update.set(persona.<String>get("nombre"), p.nombre());
+                }
+                if (p.edad() != null) {
+                    update.set(persona.<Integer>get("edad"), p.edad());
+                }
+                if (p.telefono() != null) {
+                    update.set(persona.<String>get("telefono"), p.telefono());
+                }
+                if (p.email() != null) {
+                    update.set(persona.<String>get("email"), p.email());
+                }
+                if (p.direccionId() != null) {
+                    update.set(persona.<Direccion>get("direccion"), entityManager.getReference(Direccion.class, p.direccionId()));
+                }
+                update.set(persona.<Long>get("version"), cb.sum(persona.<Long>get("version"), 1L));
+                update.where(cb.equal(persona.get("id"), id), cb.equal(persona.get("version"), p.version()));
+                return entityManager.createQuery(update).executeUpdate();
+            });
+
+            if (filas == null || filas == 0) {
+                return personaRepository.existsById(id)
+                        ? ResponseEntity.status(HttpStatus.CONFLICT).body("La persona fue modificada por otra peticion, vuelva a leerla")
+                        : ResponseEntity.notFound().build();
+            }
+        } catch (RuntimeException e) {
+            if (esViolacionDeRestriccion(e)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("Viola una restriccion de la base (direccion inexistente o email/telefono ya registrado)");
+            }
+            throw e;
+        }
+
+        if (p.cambiaCamposBuscables()) {
+            searchIndex.update(id, p.nombre(), p.email(), p.telefono());
+        }
+        jsonCache.evict(id);
+        tableVersion.cambio();
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", id);
+        response.put("version", p.version() + 1);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Exporta todas las personas fila por fila (NDJSON o CSV) con memoria constante.
+     *
+     * Las filas se leen con un cursor JDBC (ver PersonaRepository.streamAll) y cada entidad
+     * se desasocia del contexto de persistencia después de escribirla, así el heap no
+     * depende de la cantidad de registros.
+     *
+     * @param formato "ndjson" (por defecto) o "csv"
+     * @param out Stream de la respuesta HTTP
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void exportarPersonas(String formato, OutputStream out) throws IOException {
+        try (Stream<Persona> personas = personaRepository.streamAll()) {
+            if ("csv".equalsIgnoreCase(formato)) {
+                exportarCsv(personas.iterator(), out);
+            } else {
+                exportarNdjson(personas.iterator(), out);
+            }
+        }
+    }
+
+    private void exportarNdjson(Iterator<Persona> personas, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(generator)) {
+            int count = 0;
+            while (personas.hasNext()) {
+                Persona persona = personas.next();
+                writer.write(persona);
+                detach(persona);
+                if (++count % EXPORT_FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+            generator.writeRaw('\n');
+        }
+    }
+
+    private void exportarCsv(Iterator<Persona> personas, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,nombre,edad,telefono,email,direccion_id,calle,barrio,altura\n");
+        int count = 0;
+        while (personas.hasNext()) {
+            Persona persona = personas.next();
+            Direccion direccion = persona.getDireccion();
+            writer.write(String.valueOf(persona.getId()));
+            writer.write(',');
+            writer.write(csv(persona.getNombre()));
+            writer.write(',');
+            writer.write(persona.getEdad() == null ? "" : persona.getEdad().toString());
+            writer.write(',');
+            writer.write(csv(persona.getTelefono()));
+            writer.write(',');
+            writer.write(csv(persona.getEmail()));
+            writer.write(',');
+            writer.write(direccion == null ? "" : String.valueOf(direccion.getId()));
+            writer.write(',');
+            writer.write(csv(direccion == null ? null : direccion.getCalle()));
+            writer.write(',');
+            writer.write(csv(direccion == null ? null : direccion.getBarrio()));
+            writer.write(',');
+            writer.write(csv(direccion == null ? null : direccion.getAltura()));
+            writer.write('\n');
+            detach(persona);
+            if (++count % EXPORT_FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Saca la persona y su dirección del contexto de persistencia para que no se acumulen.
+     */
+    private void detach(Persona persona) {
+        entityManager.detach(persona);
+        if (persona.getDireccion() != null) {
+            entityManager.detach(persona.getDireccion());
+        }
+    }
+
+    /**
+     * Escapa un valor según RFC 4180 (comillas si contiene coma, comillas o salto de línea).
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public PersonaSearchResult buscarPersonas(String q, int page, int size) {
+        return searchIndex.search(q, Math.max(page, 0), Math.max(1, Math.min(size, MAX_LIMIT)));
+    }
+
+    /**
+     * Personas que cumplen todos los filtros informados, paginadas por offset sin COUNT(*).
+     * Si hay más resultados se informa la página siguiente en el header X-Next-Page.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public ResponseEntity<?> filtrarPersonas(PersonaFiltro filtro, int page, int limit, MediaType formato) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        PersonaJsonCache.Marca marca = jsonCache.marca();
+        if (fueraDeRango(page, size)) {
+            return cuerpo(ResponseEntity.ok(), List.of(), marca, formato);
+        }
+        Slice<PersonaView> slice = personaRepository.filtrar(PersonaSpecifications.de(filtro), PageRequest.of(Math.max(page, 0), size));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (slice.hasNext()) {
+            response.header(NEXT_PAGE_HEADER, String.valueOf(slice.getNumber() + 1));
+        }
+        return cuerpo(response, slice.getContent(), marca, formato);
+    }
+
+    /**
+     * Alta masiva de personas.
+     *
+     * Las direcciones se validan con una única consulta y se asignan con getReferenceById
+     * (sin SELECT). Los ids salen de la secuencia pooled, por lo que los INSERT se envían en
+     * batches JDBC (hibernate.jdbc.batch_size).
+     */
+    @Override
+    public List<BatchItemResult> crearPersonasEnLote(List<PersonaDto> personas) {
+        BatchItemResult[] results = new BatchItemResult[personas.size()];
+        Set<Long> direcciones = direccionesExistentes(personas.stream().map(PersonaDto::direccionId).toList());
+        Set<String> emails = new HashSet<>();
+        Set<String> telefonos = new HashSet<>();
+        List<Integer> validos = new ArrayList<>();
+
+        for (int i = 0; i < personas.size(); i++) {
+            PersonaDto p = personas.get(i);
+            if (p.direccionId() == null || !direcciones.contains(p.direccionId())) {
+                results[i] = BatchItemResult.error(i, null, "La direccion " + p.direccionId() + " no existe");
+            } else if ((p.email() != null && !emails.add(p.email())) || (p.telefono() != null && !telefonos.add(p.telefono()))) {
+                results[i] = BatchItemResult.error(i, null, "Email o telefono repetido dentro del lote");
+            } else {
+                validos.add(i);
+            }
+        }
+
+        escribirEnLotes(validos, results, indices -> {
+            Map<Integer, BatchItemResult> creados = new HashMap<>();
+            for (Integer i : indices) {
+                PersonaDto p = personas.get(i);
+                Persona newPersona = new Persona();
+                newPersona.setEdad(p.edad());
+                newPersona.setNombre(p.nombre());
+                newPersona.setEmail(p.email());
+                newPersona.setTelefono(p.telefono());
+                newPersona.setDireccion(direccionRepository.getReferenceById(p.direccionId()));
+                entityManager.persist(newPersona);
+                creados.put(i, BatchItemResult.ok(i, newPersona.getId()));
+            }
+            return creados;
+        });
+        for (BatchItemResult result : results) {
+            if (result.error() == null) {
+                PersonaDto p = personas.get(result.index());
+                searchIndex.index(result.id(), p.nombre(), p.email(), p.telefono());
+            }
+        }
+        registrarCambio(results);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Actualización masiva: cada bloque se carga con un único SELECT ... IN y los UPDATE
+     * resultantes se envían en batches JDBC al hacer flush.
+     */
+    @Override
+    public List<BatchItemResult> actualizarPersonasEnLote(List<PersonaUpdateDto> personas) {
+        BatchItemResult[] results = new BatchItemResult[personas.size()];
+        Set<Long> direcciones = direccionesExistentes(personas.stream().map(PersonaUpdateDto::direccionId).toList());
+        Set<Long> ids = new HashSet<>();
+        List<Integer> validos = new ArrayList<>();
+
+        for (int i = 0; i < personas.size(); i++) {
+            PersonaUpdateDto p = personas.get(i);
+            if (p.id() == null || !ids.add(p.id())) {
+                results[i] = BatchItemResult.error(i, p.id(), "Id nulo o repetido dentro del lote");
+            } else if (p.direccionId() == null || !direcciones.contains(p.direccionId())) {
+                results[i] = BatchItemResult.error(i, p.id(), "La direccion " + p.direccionId() + " no existe");
+            } else {
+                validos.add(i);
+            }
+        }
+
+        escribirEnLotes(validos, results, indices -> {
+            Map<Long, Persona> existentes = new HashMap<>();
+            for (Persona persona : personaRepository.findAllWithDireccionByIdIn(indices.stream().map(i -> personas.get(i).id()).toList())) {
+                existentes.put(persona.getId(), persona);
+            }
+            Map<Integer, BatchItemResult> actualizados = new HashMap<>();
+            for (Integer i : indices) {
+                PersonaUpdateDto p = personas.get(i);
+                Persona persona = existentes.get(p.id());
+                if (persona == null) {
+                    actualizados.put(i, BatchItemResult.error(i, p.id(), "Persona no encontrada"));
+                    continue;
+                }
+                persona.setEdad(p.edad());
+                persona.setNombre(p.nombre());
+                persona.setEmail(p.email());
+                persona.setTelefono(p.telefono());
+                if (!p.direccionId().equals(persona.getDireccion().getId())) {
+                    persona.setDireccion(direccionRepository.getReferenceById(p.direccionId()));
+                }
+                actualizados.put(i, BatchItemResult.ok(i, p.id()));
+            }
+            return actualizados;
+        });
+        for (BatchItemResult result : results) {
+            if (result.error() == null) {
+                PersonaUpdateDto p = personas.get(result.index());
+                searchIndex.index(result.id(), p.nombre(), p.email(), p.telefono());
+                jsonCache.evict(result.id());
+            }
+        }
+        registrarCambio(results);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Borrado masivo: por cada bloque un SELECT de los ids existentes (para informar cuáles no
+     * se encontraron) y un único DELETE ... WHERE id IN (...).
+     */
+    @Override
+    public List<BatchItemResult> eliminarEnLote(List<Long> ids) {
+        BatchItemResult[] results = new BatchItemResult[ids.size()];
+        Set<Long> vistos = new HashSet<>();
+        List<Integer> validos = new ArrayList<>();
+
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == null || !vistos.add(ids.get(i))) {
+                results[i] = BatchItemResult.error(i, ids.get(i), "Id nulo o repetido dentro del lote");
+            } else {
+                validos.add(i);
+            }
+        }
+
+        escribirEnLotes(validos, results, indices -> {
+            Set<Long> existentes = new HashSet<>(personaRepository.findExistingIds(indices.stream().map(ids::get).toList()));
+            if (!existentes.isEmpty()) {
+                personaRepository.deleteByIdIn(existentes);
+            }
+            Map<Integer, BatchItemResult> eliminados = new HashMap<>();
+            for (Integer i : indices) {
+                Long id = ids.get(i);
+                eliminados.put(i, existentes.contains(id)
+                        ? BatchItemResult.ok(i, id)
+                        : BatchItemResult.error(i, id, "Persona no encontrada"));
+            }
+            return eliminados;
+        });
+        for (BatchItemResult result : results) {
+            if (result.error() == null) {
+                searchIndex.remove(result.id());
+                jsonCache.evict(result.id());
+            }
+        }
+        registrarCambio(results);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Avanza la versión de la tabla si algún elemento del lote se escribió.
+     */
+    private void registrarCambio(BatchItemResult[] results) {
+        if (Arrays.stream(results).anyMatch(r -> r.error() == null)) {
+            tableVersion.cambio();
+        }
+    }
+
+    /**
+     * Devuelve cuáles de las direcciones indicadas existen. Se cargan con multiLoad, que resuelve
+     * primero desde el contexto de persistencia y el cache de segundo nivel ("direcciones") y trae
+     * el resto (no cacheadas o inexistentes) con consultas IN por lotes, no una por id.
+     */
+    private Set<Long> direccionesExistentes(List<Long> ids) {
+        Set<Long> distintos = new HashSet<>(ids);
+        distintos.remove(null);
+        if (distintos.isEmpty()) {
+            return Set.of();
+        }
+        return transactionTemplate.execute(status -> {
+            Set<Long> existentes = new HashSet<>();
+            entityManager.unwrap(Session.class)
+                    .byMultipleIds(Direccion.class)
+                    .enableSessionCheck(true)
+                    .multiLoad(new ArrayList<>(distintos))
+                    .forEach(direccion -> {
+                        if (direccion != null) {
+                            existentes.add(direccion.getId());
+                        }
+                    });
+            return existentes;
+        });
+    }
+
+    /**
+     * Ejecuta la operación en bloques de "chunkSize" elementos, cada uno en su propia transacción,
+     * y vacía el contexto de persistencia después de cada uno (memoria constante en lotes grandes).
+     * Si un bloque falla (por ejemplo por un email ya existente en la base) se reintenta elemento
+     * por elemento para informar exactamente cuáles fallaron, sin perder el resto del lote.
+     *
+     * @param indices Posiciones del pedido a procesar
+     * @param results Resultados por posición, se completan in-place
+     * @param operacion Escribe un bloque y devuelve el resultado de cada posición
+     */
+    private void escribirEnLotes(List<Integer> indices, BatchItemResult[] results,
+                                 Function<List<Integer>, Map<Integer, BatchItemResult>> operacion) {
+        int size = Math.max(1, chunkSize);
+        for (int from = 0; from < indices.size(); from += size) {
+            List<Integer> bloque = indices.subList(from, Math.min(from + size, indices.size()));
+            try {
+                Map<Integer, BatchItemResult> parcial = transactionTemplate.execute(status -> {
+                    Map<Integer, BatchItemResult> r = operacion.apply(bloque);
+                    entityManager.flush();
+                    // Con open-in-view el EntityManager es el de la petición y sobrevive a cada
+                    // transacción: sin clear las entidades de los bloques ya escritos se acumulan
+                    // y cada flush vuelve a revisarlas
+                    entityManager.clear();
+                    return r;
+                });
+                Objects.requireNonNull(parcial).forEach((i, result) -> results[i] = result);
+            } catch (RuntimeException e) {
+                if (bloque.size() == 1) {
+                    Integer i = bloque.get(0);
+                    log.debug("Error en elemento {} del lote: {}", i, e.getMessage());
+                    results[i] = BatchItemResult.error(i, null, esViolacionDeRestriccion(e)
+                            ? "Viola una restriccion de la base (email o telefono ya registrado)"
+                            : esConflictoDeVersion(e)
+                            ? "La persona fue modificada por otra peticion"
+                            : "No se pudo guardar: " + causaRaiz(e));
+                } else {
+                    for (Integer i : bloque) {
+                        escribirEnLotes(List.of(i), results, operacion);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean esViolacionDeRestriccion(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException || cause instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean esConflictoDeVersion(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException || cause instanceof OptimisticLockException
+                    || cause instanceof org.hibernate.StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String causaRaiz(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getClass().getSimpleName();
     }
 }
@@ -4,6 +4,7 @@ import digitalers.entity.Role;
 import digitalers.entity.UserApi;
 import digitalers.repository.UserRepository;
 import digitalers.service.UserDetailService;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
@@ -23,31 +24,39 @@ public class UserDetailServiceImpl implements UserDetailService {
     @Autowired
     private UserRepository userRepository;
 
+    @Timed(value = "users.lookup", description = "Carga de usuario y roles desde la base de datos")
     @Transactional(readOnly = true)
     @Override
     public User loadUserByUsername(String username) throws UsernameNotFoundException {
         UserApi usuario = userRepository.findByUsername(username);
 
         if (usuario == null) {
-            log.error("Error login: no existe el usuario '"+username+"'");
+            log.error("Error login: no existe el usuario '{}'", username);
             throw new UsernameNotFoundException("username " + username + " no existe en el sitema");
         }
 
+        return toUser(usuario);
+    }
+
+    @Override
+    public User toUser(UserApi usuario) throws UsernameNotFoundException {
+        String username = usuario.getUsername();
         List<GrantedAuthority> authorities = new ArrayList<>();
 
         for (Role role : usuario.getRoles()){
-            log.info("Role: " + role.getAuthority());
+            log.debug("Role: {}", role.getAuthority());
             authorities.add(new SimpleGrantedAuthority(role.getAuthority()));
         }
 
         if(authorities.isEmpty()){
-            log.error("Error de login: usuario " + username + "No tiene roles asignados");
+            log.error("Error de login: usuario {} No tiene roles asignados", username);
             throw new UsernameNotFoundException("Error de login: usuario " + username + "No tiene roles asignados");
         }
 
         return new User(usuario.getUsername(), usuario.getPassword(), usuario.getEnabled(), true, true, true, authorities);
     }
 
+    @Timed(value = "users.lookup", description = "Carga de usuario y roles desde la base de datos")
     @Transactional(readOnly = true)
     @Override
     public UserApi findUserByUsername(String username) throws UsernameNotFoundException {
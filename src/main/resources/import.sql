@@ -1,6 +1,6 @@
-INSERT INTO DIRECCIONES (CALLE, BARRIO, ALTURA) VALUES ('Calle siempre viva', 'Springfield', '1234');
+INSERT INTO DIRECCIONES (DIRECCION_ID, CALLE, BARRIO, ALTURA) VALUES (NEXT VALUE FOR DIRECCIONES_SEQ, 'Calle siempre viva', 'Springfield', '1234');
 
-INSERT INTO PERSONAS (NOMBRE, EDAD, DIRECCION_ID, TELEFONO, EMAIL) VALUES ('nestor', 33, 1, '123456789', 'rosten2016@gmail.com');
+INSERT INTO PERSONAS (PERSONA_ID, NOMBRE, EDAD, DIRECCION_ID, TELEFONO, EMAIL, VERSION) VALUES (NEXT VALUE FOR PERSONAS_SEQ, 'nestor', 33, 1, '123456789', 'rosten2016@gmail.com', 0);
 
 
 
@@ -0,0 +1,89 @@
+package digitalers;
+
+import digitalers.auth.JwtUtil;
+import digitalers.auth.SecurityStampRegistry;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica que /actuator/prometheus publique las métricas de autenticación, servicio y
+ * persistencia, con buckets de histograma para los timers, también con el perfil "virtual".
+ */
+@SpringBootTest(properties = "jwt.auth.stateless=false")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class PrometheusEndpointTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private SecurityStampRegistry securityStampRegistry;
+
+    @Test
+    void publicaMetricasDeAutenticacionServicioYPersistencia() throws Exception {
+        verificarMetricas(mockMvc, jwtUtil, securityStampRegistry);
+    }
+
+    /** El perfil "virtual" redefine la lista de endpoints expuestos: debe seguir incluyendo prometheus. */
+    @Nested
+    @ActiveProfiles("virtual")
+    class PerfilVirtual {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private JwtUtil jwtUtil;
+
+        @Autowired
+        private SecurityStampRegistry securityStampRegistry;
+
+        @Test
+        void publicaMetricasConHilosVirtuales() throws Exception {
+            verificarMetricas(mockMvc, jwtUtil, securityStampRegistry);
+        }
+    }
+
+    private static void verificarMetricas(MockMvc mockMvc, JwtUtil jwtUtil,
+                                          SecurityStampRegistry securityStampRegistry) throws Exception {
+        String token = jwtUtil.generateToken(
+                new User("admin", "", List.of()),
+                Map.of("roles", List.of("ROLE_ADMIN", "ROLE_USER"),
+                        SecurityStampRegistry.CLAIM, securityStampRegistry.current("admin")));
+
+        mockMvc.perform(get("/personas/{id}", 1).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        String metricas = mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(metricas)
+                .contains("jwt_verify_seconds_bucket{")
+                .contains("jwt_filter_seconds_count{result=\"database\"}")
+                .contains("jwt_sign_seconds_count")
+                .contains("users_lookup_seconds_bucket{")
+                .contains("personas_service_seconds_bucket{")
+                .contains("method=\"personaPorId\"")
+                .contains("hibernate_statements_total")
+                .contains("hikaricp_connections_acquire_seconds_bucket{");
+    }
+}
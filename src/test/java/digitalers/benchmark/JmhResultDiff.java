@@ -0,0 +1,113 @@
+package digitalers.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compara dos resultados de JMH en formato JSON (-rf json) y termina con código 1 si algún
+ * benchmark empeoró más que el porcentaje permitido.
+ *
+ * - Los benchmarks se identifican por nombre y parámetros.
+ * - En los modos de tiempo (avgt, sample, ss) empeorar es subir; en thrpt es bajar.
+ * - Una diferencia menor que la suma de los errores (intervalo de confianza) de ambas
+ *   mediciones se considera ruido y no cuenta como regresión.
+ * - Sin archivo de referencia solo lo informa y termina bien (primera ejecución).
+ *
+ * Lo ejecuta el perfil "jmh" después de los benchmarks. Uso manual:
+ *   java -cp ... digitalers.benchmark.JmhResultDiff actual.json referencia.json [maxRegresionPorcentaje=10]
+ */
+public class JmhResultDiff {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    record Medicion(String modo, double score, double error, String unidad) {
+
+        boolean menorEsMejor() {
+            return !"thrpt".equals(modo);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: JmhResultDiff actual.json referencia.json [maxRegresionPorcentaje=10]");
+            System.exit(2);
+        }
+        File actual = new File(args[0]);
+        File referencia = new File(args[1]);
+        double maxRegresion = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        if (!referencia.isFile()) {
+            System.out.printf("Sin resultados de referencia en %s: no hay contra que comparar %s%n", referencia, actual);
+            return;
+        }
+
+        Map<String, Medicion> nuevos = leer(actual);
+        Map<String, Medicion> anteriores = leer(referencia);
+
+        int regresiones = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "referencia", "actual", "cambio");
+        for (Map.Entry<String, Medicion> entry : nuevos.entrySet()) {
+            Medicion nuevo = entry.getValue();
+            Medicion anterior = anteriores.get(entry.getKey());
+            if (anterior == null || !anterior.unidad().equals(nuevo.unidad())) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", nuevo.score(), "nuevo");
+                continue;
+            }
+            // Positivo = peor, en cualquier modo
+            double cambio = (nuevo.score() - anterior.score()) / anterior.score() * 100;
+            if (!nuevo.menorEsMejor()) {
+                cambio = -cambio;
+            }
+            boolean ruido = Math.abs(nuevo.score() - anterior.score()) <= errorOCero(nuevo) + errorOCero(anterior);
+            boolean regresion = cambio > maxRegresion && !ruido;
+            if (regresion) {
+                regresiones++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), anterior.score(), nuevo.score(), cambio,
+                    nuevo.unidad(), regresion ? "  REGRESION" : ruido ? "  (ruido)" : "");
+        }
+        for (String nombre : anteriores.keySet()) {
+            if (!nuevos.containsKey(nombre)) {
+                System.out.printf("%-90s %14.3f %14s %9s%n", nombre, anteriores.get(nombre).score(), "-", "quitado");
+            }
+        }
+
+        if (regresiones > 0) {
+            System.out.printf("%n%d benchmark(s) empeoraron mas de %.1f%%%n", regresiones, maxRegresion);
+            System.exit(1);
+        }
+    }
+
+    private static double errorOCero(Medicion medicion) {
+        return Double.isNaN(medicion.error()) ? 0 : medicion.error();
+    }
+
+    /**
+     * @return Mediciones por "benchmark{param=valor,...}", en orden alfabético
+     */
+    static Map<String, Medicion> leer(File archivo) throws IOException {
+        Map<String, Medicion> mediciones = new TreeMap<>();
+        for (JsonNode resultado : MAPPER.readTree(archivo)) {
+            StringBuilder nombre = new StringBuilder(resultado.get("benchmark").asText());
+            JsonNode params = resultado.get("params");
+            if (params != null && params.size() > 0) {
+                Map<String, String> ordenados = new LinkedHashMap<>();
+                params.fieldNames().forEachRemaining(campo -> ordenados.put(campo, params.get(campo).asText()));
+                nombre.append(ordenados);
+            }
+            JsonNode metrica = resultado.get("primaryMetric");
+            mediciones.put(nombre.toString(), new Medicion(
+                    resultado.get("mode").asText(),
+                    metrica.get("score").asDouble(),
+                    metrica.get("scoreError").asDouble(Double.NaN),
+                    metrica.get("scoreUnit").asText()));
+        }
+        return mediciones;
+    }
+}
@@ -0,0 +1,150 @@
+package digitalers.benchmark;
+
+import digitalers.auth.JwtAuthenticationFilter;
+import digitalers.auth.JwtUtil;
+import digitalers.auth.SecurityStampRegistry;
+import digitalers.entity.UserApi;
+import digitalers.service.UserDetailService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de JwtAuthenticationFilter.doFilterInternal por petición, con una cadena de filtros
+ * que solo lee la autenticación resultante.
+ *
+ * - "stateless" = true: roles tomados del token (stamp vigente), sin UserDetailService.
+ * - "stateless" = false: el usuario se obtiene de un UserDetailService en memoria, así se
+ *   mide solo el costo del filtro y no el de la base (ver UserDetailServiceBenchmark).
+ *
+ * Ejecutar con:
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        digitalers.benchmark.JwtAuthenticationFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"true", "false"})
+    boolean stateless;
+
+    private BenchmarkFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private CapturingChain chain;
+
+    /**
+     * Expone doFilterInternal (protegido) para invocarlo sin el control de OncePerRequestFilter.
+     */
+    static class BenchmarkFilter extends JwtAuthenticationFilter {
+
+        void filter(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            doFilterInternal(request, response, chain);
+        }
+    }
+
+    /**
+     * Cadena simulada: toma la autenticación que dejó el filtro (para que no se elimine como
+     * código muerto) y limpia el contexto para la siguiente invocación.
+     */
+    static class CapturingChain implements FilterChain {
+
+        Authentication authentication;
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) {
+            authentication = SecurityContextHolder.getContext().getAuthentication();
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * UserDetailService que devuelve siempre el mismo usuario, sin base de datos.
+     */
+    static class FixedUserDetailService implements UserDetailService {
+
+        private final User user = new User("admin", "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"),
+                new SimpleGrantedAuthority("ROLE_USER")));
+
+        @Override
+        public User loadUserByUsername(String username) {
+            return user;
+        }
+
+        @Override
+        public UserApi findUserByUsername(String username) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public User toUser(UserApi usuario) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = JwtBenchmark.jwtUtil(10000);
+        SecurityStampRegistry stamps = new SecurityStampRegistry();
+        FixedUserDetailService userDetailService = new FixedUserDetailService();
+
+        filter = new BenchmarkFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailService);
+        ReflectionTestUtils.setField(filter, "securityStampRegistry", stamps);
+        ReflectionTestUtils.setField(filter, "stateless", stateless);
+        ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(filter, "init");
+
+        String token = JwtBenchmark.loginToken(jwtUtil, userDetailService.loadUserByUsername("admin"), stamps);
+        request = new MockHttpServletRequest("GET", "/personas");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+        chain = new CapturingChain();
+    }
+
+    @Benchmark
+    public Authentication doFilterInternal() throws Exception {
+        filter.filter(request, response, chain);
+        return chain.authentication;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtAuthenticationFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
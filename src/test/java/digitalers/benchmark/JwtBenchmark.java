@@ -0,0 +1,99 @@
+package digitalers.benchmark;
+
+import digitalers.auth.JwtUtil;
+import digitalers.auth.SecurityStampRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de {@link JwtUtil#generateAccessToken} y {@link JwtUtil#validateToken(String, org.springframework.security.core.userdetails.UserDetails)}
+ * con los mismos claims que emite el login (ver TokenClaimsBenchmark para el formato anterior).
+ *
+ * "cache" = 0 deshabilita el cache de tokens verificados: cada validación vuelve a calcular
+ * el HMAC y a parsear los claims (equivale a un token visto por primera vez).
+ *
+ * Ejecutar con:
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        digitalers.benchmark.JwtBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    static final String SECRET = "digitalers.clave.super.secreta.123456789";
+
+    @Param({"0", "10000"})
+    int cache;
+
+    private JwtUtil jwtUtil;
+    private User user;
+    private SecurityStampRegistry stamps;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = jwtUtil(cache);
+        user = new User("admin", "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_USER")));
+        stamps = new SecurityStampRegistry();
+        token = loginToken(jwtUtil, user, stamps);
+    }
+
+    /**
+     * JwtUtil configurado como en application.properties, sin levantar Spring.
+     */
+    static JwtUtil jwtUtil(int cacheMaxSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "SECRET_KEY", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxSize", cacheMaxSize);
+        ReflectionTestUtils.setField(jwtUtil, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtil, "roles", new String[]{"ROLE_USER", "ROLE_ADMIN"});
+        ReflectionTestUtils.setField(jwtUtil, "optionalClaims", new String[0]);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+        return jwtUtil;
+    }
+
+    /**
+     * Token de acceso como lo emite AuthController.
+     */
+    static String loginToken(JwtUtil jwtUtil, User user, SecurityStampRegistry stamps) {
+        return jwtUtil.generateAccessToken(user, stamps.current(user.getUsername()), claim -> null);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return loginToken(jwtUtil, user, stamps);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, user);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,475 @@
+package digitalers.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import digitalers.PersonaApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de carga de punta a punta sin herramientas externas.
+ *
+ * - Levanta la aplicación en un puerto libre (H2 en memoria) y carga "personas" personas
+ *   con POST /personas/batch.
+ * - Hace login en /login como admin y usa ese token en todos los pedidos.
+ * - Modelo abierto: los pedidos salen a una tasa fija ("rate" por segundo) sin esperar a que
+ *   terminen los anteriores, con la mezcla de operaciones de "mezcla".
+ * - Corrección de coordinated omission: la latencia se mide desde el instante en que el pedido
+ *   debía salir según la tasa, no desde que salió. Si el servidor (o el propio generador) se
+ *   atrasa, la espera acumulada queda en los percentiles. La columna "servicio" muestra la
+ *   medición sin corregir para comparar.
+ * - Los pedidos fallidos (timeout, excepción, 4xx/5xx como los 503 del límite de concurrencia o
+ *   del pool de BCrypt) también se registran en los percentiles: bajo sobrecarga son justamente
+ *   los más lentos. La columna "p99 errores" muestra solo los fallidos.
+ * - Resultado: percentiles HdrHistogram y throughput por endpoint, en consola y en
+ *   target/load/resumen.json; la distribución completa de cada endpoint en target/load/*.hgrm.
+ *
+ * Modos ("modo"):
+ * - report: solo informa (por defecto).
+ * - record: guarda el resumen como referencia en "baseline".
+ * - check: compara contra "baseline" y termina con código 1 si el p99 de algún endpoint supera
+ *   al de referencia en más de "tolerancia" por ciento, si la tasa de errores supera
+ *   "maxErrores" por ciento o si no se alcanzó el 95% de la tasa pedida.
+ *
+ * Ejecutar con:
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        digitalers.benchmark.LoadHarness [rate=200] [duracion=30] [calentamiento=10] \
+ *        [mezcla=GET:50,GET_LISTA:20,POST:10,PUT:10,DELETE:10] [personas=2000] \
+ *        [modo=report|record|check] [baseline=benchmarks/load-baseline.json] [tolerancia=20] [maxErrores=1]
+ */
+public class LoadHarness {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    enum Operacion {
+        GET_LISTA("GET /personas"),
+        GET("GET /personas/{id}"),
+        POST("POST /personas"),
+        PUT("PUT /personas/{id}"),
+        DELETE("DELETE /personas/{id}");
+
+        final String endpoint;
+
+        Operacion(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    record Config(int rate, int duracion, int calentamiento, Map<Operacion, Integer> mezcla, int personas, String modo,
+                  File baseline, double tolerancia, double maxErrores) {
+
+        static Config parse(String[] args) {
+            Map<String, String> valores = new LinkedHashMap<>();
+            for (String arg : args) {
+                int igual = arg.indexOf('=');
+                if (igual < 0) {
+                    throw new IllegalArgumentException("Argumento invalido (se espera clave=valor): " + arg);
+                }
+                valores.put(arg.substring(0, igual), arg.substring(igual + 1));
+            }
+            Map<Operacion, Integer> mezcla = new EnumMap<>(Operacion.class);
+            for (String parte : valores.getOrDefault("mezcla", "GET:50,GET_LISTA:20,POST:10,PUT:10,DELETE:10").split(",")) {
+                String[] peso = parte.split(":");
+                mezcla.put(Operacion.valueOf(peso[0].trim()), Integer.parseInt(peso[1].trim()));
+            }
+            return new Config(
+                    Integer.parseInt(valores.getOrDefault("rate", "200")),
+                    Integer.parseInt(valores.getOrDefault("duracion", "30")),
+                    Integer.parseInt(valores.getOrDefault("calentamiento", "10")),
+                    mezcla,
+                    Integer.parseInt(valores.getOrDefault("personas", "2000")),
+                    valores.getOrDefault("modo", "report"),
+                    new File(valores.getOrDefault("baseline", "benchmarks/load-baseline.json")),
+                    Double.parseDouble(valores.getOrDefault("tolerancia", "20")),
+                    Double.parseDouble(valores.getOrDefault("maxErrores", "1")));
+        }
+    }
+
+    /**
+     * Histogramas y contadores de un endpoint. Los valores se registran en nanosegundos.
+     *
+     * "latencia" y "servicio" incluyen todos los pedidos enviados, exitosos o no; "fallidas"
+     * solo los que respondieron con error o no respondieron.
+     */
+    static final class Medicion {
+
+        final Histogram latencia = new ConcurrentHistogram(3);
+        final Histogram servicio = new ConcurrentHistogram(3);
+        final Histogram fallidas = new ConcurrentHistogram(3);
+        /** Pedidos que no se pudieron armar (sin ids disponibles): errores sin latencia */
+        final AtomicLong sinPedido = new AtomicLong();
+
+        long pedidos() {
+            return latencia.getTotalCount() + sinPedido.get();
+        }
+
+        long errores() {
+            return fallidas.getTotalCount() + sinPedido.get();
+        }
+
+        void reset() {
+            latencia.reset();
+            servicio.reset();
+            fallidas.reset();
+            sinPedido.set(0);
+        }
+    }
+
+    /**
+     * Ids existentes para GET, PUT y DELETE; los POST agregan y los DELETE quitan.
+     */
+    static final class Ids {
+
+        private final List<Long> ids = new ArrayList<>();
+
+        synchronized void add(Long id) {
+            ids.add(id);
+        }
+
+        synchronized Long cualquiera() {
+            return ids.isEmpty() ? null : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+
+        synchronized Long quitarCualquiera() {
+            if (ids.isEmpty()) {
+                return null;
+            }
+            int i = ThreadLocalRandom.current().nextInt(ids.size());
+            Long id = ids.get(i);
+            ids.set(i, ids.get(ids.size() - 1));
+            ids.remove(ids.size() - 1);
+            return id;
+        }
+    }
+
+    private final Config config;
+    private final HttpClient http;
+    private final String base;
+    private final String token;
+    private final Ids ids = new Ids();
+    private final Map<Operacion, Medicion> mediciones = new EnumMap<>(Operacion.class);
+    private final AtomicLong secuencia = new AtomicLong();
+    private final AtomicInteger enVuelo = new AtomicInteger();
+    private final Operacion[] ruleta;
+
+    LoadHarness(Config config, HttpClient http, String base, String token) {
+        this.config = config;
+        this.http = http;
+        this.base = base;
+        this.token = token;
+        List<Operacion> casillas = new ArrayList<>();
+        config.mezcla().forEach((operacion, peso) -> {
+            for (int i = 0; i < peso; i++) {
+                casillas.add(operacion);
+            }
+        });
+        this.ruleta = casillas.toArray(Operacion[]::new);
+        for (Operacion operacion : config.mezcla().keySet()) {
+            mediciones.put(operacion, new Medicion());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.parse(args);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PersonaApplication.class, LoadTestSecurity.class)
+                .run("--server.port=0", "--logging.level.root=WARN")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String base = "http://localhost:" + port;
+            HttpClient http = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(TIMEOUT)
+                    .build();
+
+            LoadHarness harness = new LoadHarness(config, http, base, login(http, base));
+            harness.sembrar();
+
+            System.out.printf("Calentamiento: %d s a %d req/s%n", config.calentamiento(), config.rate());
+            harness.ejecutar(config.calentamiento());
+            harness.mediciones.values().forEach(Medicion::reset);
+
+            System.out.printf("Medicion: %d s a %d req/s, mezcla %s%n", config.duracion(), config.rate(), config.mezcla());
+            double segundos = harness.ejecutar(config.duracion());
+
+            ObjectNode resumen = harness.resumen(segundos);
+            harness.imprimir(resumen, System.out);
+            harness.guardar(resumen);
+            System.exit(harness.evaluar(resumen));
+        }
+    }
+
+    /**
+     * Envía pedidos a la tasa configurada durante los segundos indicados y espera a que terminen.
+     *
+     * @return Segundos transcurridos hasta la última respuesta
+     */
+    double ejecutar(int segundos) throws InterruptedException {
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        long inicio = System.nanoTime();
+        long fin = inicio + TimeUnit.SECONDS.toNanos(segundos);
+
+        for (long i = 0; ; i++) {
+            long programado = inicio + i * intervalo;
+            if (programado >= fin) {
+                break;
+            }
+            long espera = programado - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            enviar(ruleta[ThreadLocalRandom.current().nextInt(ruleta.length)], programado);
+        }
+
+        long limite = System.nanoTime() + TIMEOUT.toNanos() * 2;
+        while (enVuelo.get() > 0 && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        return (System.nanoTime() - inicio) / 1e9;
+    }
+
+    private void enviar(Operacion operacion, long programado) {
+        HttpRequest pedido = pedido(operacion);
+        if (pedido == null) {
+            // Sin ids disponibles para la operación: se cuenta como error del generador
+            mediciones.get(operacion).sinPedido.incrementAndGet();
+            return;
+        }
+        enVuelo.incrementAndGet();
+        long enviado = System.nanoTime();
+        http.sendAsync(pedido, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((respuesta, error) -> {
+            long ahora = System.nanoTime();
+            Medicion medicion = mediciones.get(operacion);
+            medicion.latencia.recordValue(ahora - programado);
+            medicion.servicio.recordValue(ahora - enviado);
+            if (error != null || respuesta.statusCode() >= 400) {
+                medicion.fallidas.recordValue(ahora - programado);
+            } else if (operacion == Operacion.POST) {
+                registrarId(respuesta.body());
+            }
+            enVuelo.decrementAndGet();
+        });
+    }
+
+    private HttpRequest pedido(Operacion operacion) {
+        return switch (operacion) {
+            case GET_LISTA -> autorizado("/personas?limit=50").GET().build();
+            case GET -> {
+                Long id = ids.cualquiera();
+                yield id == null ? null : autorizado("/personas/" + id).GET().build();
+            }
+            case POST -> autorizado("/personas").header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(persona("post"))).build();
+            case PUT -> {
+                Long id = ids.cualquiera();
+                yield id == null ? null : autorizado("/personas/" + id).header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(persona("put"))).build();
+            }
+            case DELETE -> {
+                Long id = ids.quitarCualquiera();
+                yield id == null ? null : autorizado("/personas/" + id).DELETE().build();
+            }
+        };
+    }
+
+    private HttpRequest.Builder autorizado(String path) {
+        return HttpRequest.newBuilder(URI.create(base + path))
+                .timeout(TIMEOUT)
+                .header("Authorization", "Bearer " + token);
+    }
+
+    /**
+     * Persona con teléfono y email únicos (son columnas UNIQUE).
+     */
+    private String persona(String prefijo) {
+        long n = secuencia.incrementAndGet();
+        return "{\"nombre\":\"" + prefijo + n + "\",\"edad\":" + (18 + n % 60) + ",\"direccionId\":1,\"telefono\":\""
+                + prefijo + "-" + n + "\",\"email\":\"" + prefijo + n + "@test.com\"}";
+    }
+
+    private void registrarId(byte[] body) {
+        try {
+            JsonNode persona = MAPPER.readTree(body);
+            if (persona.hasNonNull("id")) {
+                ids.add(persona.get("id").asLong());
+            }
+        } catch (IOException e) {
+            // La respuesta ya se midió; solo no se agrega el id al conjunto
+        }
+    }
+
+    private static String login(HttpClient http, String base) throws Exception {
+        HttpResponse<String> r = http.send(HttpRequest.newBuilder(URI.create(base + "/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"123\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (r.statusCode() != 200) {
+            throw new IllegalStateException("Login fallido: " + r.statusCode() + " " + r.body());
+        }
+        return MAPPER.readTree(r.body()).get("accessToken").asText();
+    }
+
+    /**
+     * Carga el conjunto inicial en lotes de 1000 y guarda los ids creados.
+     */
+    void sembrar() throws Exception {
+        for (int desde = 0; desde < config.personas(); desde += 1000) {
+            StringBuilder lote = new StringBuilder("[");
+            for (int i = desde; i < Math.min(desde + 1000, config.personas()); i++) {
+                if (i > desde) {
+                    lote.append(',');
+                }
+                lote.append(persona("seed"));
+            }
+            lote.append(']');
+            HttpResponse<byte[]> r = http.send(autorizado("/personas/batch")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(lote.toString()))
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+            for (JsonNode resultado : MAPPER.readTree(r.body())) {
+                if ("OK".equals(resultado.get("status").asText())) {
+                    ids.add(resultado.get("id").asLong());
+                }
+            }
+        }
+    }
+
+    ObjectNode resumen(double segundos) {
+        ObjectNode resumen = MAPPER.createObjectNode();
+        resumen.put("rate", config.rate());
+        resumen.put("duracion", config.duracion());
+        resumen.put("segundos", segundos);
+        ObjectNode endpoints = resumen.putObject("endpoints");
+        long total = 0;
+        for (Map.Entry<Operacion, Medicion> entry : mediciones.entrySet()) {
+            Medicion medicion = entry.getValue();
+            Histogram latencia = medicion.latencia;
+            long exitosos = latencia.getTotalCount() - medicion.fallidas.getTotalCount();
+            total += exitosos;
+
+            ObjectNode endpoint = endpoints.putObject(entry.getKey().endpoint);
+            endpoint.put("pedidos", medicion.pedidos());
+            endpoint.put("errores", medicion.errores());
+            endpoint.put("throughput", exitosos / segundos);
+            endpoint.put("p50", millis(latencia.getValueAtPercentile(50)));
+            endpoint.put("p90", millis(latencia.getValueAtPercentile(90)));
+            endpoint.put("p99", millis(latencia.getValueAtPercentile(99)));
+            endpoint.put("p999", millis(latencia.getValueAtPercentile(99.9)));
+            endpoint.put("max", millis(latencia.getMaxValue()));
+            endpoint.put("p99Servicio", millis(medicion.servicio.getValueAtPercentile(99)));
+            endpoint.put("p99Errores", millis(medicion.fallidas.getValueAtPercentile(99)));
+        }
+        resumen.put("throughput", total / segundos);
+        return resumen;
+    }
+
+    void imprimir(JsonNode resumen, PrintStream out) {
+        out.printf("%nrate=%d req/s, %d s, throughput total %.1f req/s%n", resumen.get("rate").asInt(),
+                resumen.get("duracion").asInt(), resumen.get("throughput").asDouble());
+        out.printf("%-22s %8s %7s %9s %9s %9s %9s %9s %9s %12s %11s%n", "endpoint", "pedidos", "errores", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "p99 servicio", "p99 errores");
+        resumen.get("endpoints").properties().forEach(entry -> {
+            JsonNode e = entry.getValue();
+            out.printf("%-22s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %12.2f %11.2f%n", entry.getKey(), e.get("pedidos").asLong(),
+                    e.get("errores").asLong(), e.get("throughput").asDouble(), e.get("p50").asDouble(), e.get("p90").asDouble(),
+                    e.get("p99").asDouble(), e.get("p999").asDouble(), e.get("max").asDouble(), e.get("p99Servicio").asDouble(),
+                    e.get("p99Errores").asDouble());
+        });
+    }
+
+    void guardar(ObjectNode resumen) throws IOException {
+        File directorio = new File("target/load");
+        directorio.mkdirs();
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(new File(directorio, "resumen.json"), resumen);
+        for (Map.Entry<Operacion, Medicion> entry : mediciones.entrySet()) {
+            try (PrintStream hgrm = new PrintStream(new File(directorio, entry.getKey().name().toLowerCase() + ".hgrm"))) {
+                // Escala en milisegundos, formato compatible con HdrHistogram Plotter
+                entry.getValue().latencia.outputPercentileDistribution(hgrm, 1_000_000.0);
+            }
+        }
+        if ("record".equals(config.modo())) {
+            File baseline = config.baseline().getAbsoluteFile();
+            baseline.getParentFile().mkdirs();
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(baseline, resumen);
+            System.out.printf("%nReferencia guardada en %s%n", baseline);
+        }
+    }
+
+    /**
+     * @return Código de salida: 0 si pasa (o no es modo check), 1 si falla, 2 si la referencia no sirve
+     */
+    int evaluar(JsonNode resumen) throws IOException {
+        if (!"check".equals(config.modo())) {
+            return 0;
+        }
+        if (!config.baseline().isFile()) {
+            System.out.printf("%nNo existe la referencia %s (generarla con modo=record)%n", config.baseline());
+            return 2;
+        }
+        JsonNode referencia = MAPPER.readTree(config.baseline());
+        if (referencia.get("rate").asInt() != config.rate()) {
+            System.out.printf("%nLa referencia se grabo con rate=%d; esta ejecucion usa rate=%d%n",
+                    referencia.get("rate").asInt(), config.rate());
+            return 2;
+        }
+
+        List<String> fallas = new ArrayList<>();
+        if (resumen.get("throughput").asDouble() < config.rate() * 0.95) {
+            fallas.add(String.format("throughput %.1f req/s < 95%% de %d", resumen.get("throughput").asDouble(), config.rate()));
+        }
+        resumen.get("endpoints").properties().forEach(entry -> {
+            JsonNode actual = entry.getValue();
+            double porcentajeErrores = actual.get("pedidos").asLong() == 0 ? 0
+                    : actual.get("errores").asDouble() * 100 / actual.get("pedidos").asLong();
+            if (porcentajeErrores > config.maxErrores()) {
+                fallas.add(String.format("%s: %.2f%% de errores", entry.getKey(), porcentajeErrores));
+            }
+            JsonNode anterior = referencia.get("endpoints").get(entry.getKey());
+            if (anterior != null) {
+                double limite = anterior.get("p99").asDouble() * (1 + config.tolerancia() / 100);
+                if (actual.get("p99").asDouble() > limite) {
+                    fallas.add(String.format("%s: p99 %.2f ms > %.2f ms (referencia %.2f ms + %.0f%%)", entry.getKey(),
+                            actual.get("p99").asDouble(), limite, anterior.get("p99").asDouble(), config.tolerancia()));
+                }
+            }
+        });
+
+        if (fallas.isEmpty()) {
+            System.out.printf("%nOK contra %s%n", config.baseline());
+            return 0;
+        }
+        System.out.printf("%nFALLA contra %s:%n", config.baseline());
+        fallas.forEach(falla -> System.out.println("  " + falla));
+        return 1;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,44 @@
+package digitalers.benchmark;
+
+import digitalers.auth.JwtAuthenticationFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+
+/**
+ * Configuración que solo agrega LoadHarness al levantar la aplicación.
+ *
+ * SecurityConfig deniega POST /personas y PUT/DELETE /personas/{id} (solo se habilitan las
+ * operaciones en lote). Para que la prueba de carga pueda medirlos, esta cadena toma esas
+ * rutas antes que la de SecurityConfig y las permite al rol ADMIN con el mismo filtro JWT.
+ *
+ * No lleva @Configuration a propósito: está dentro del paquete digitalers y el escaneo de
+ * componentes de los tests la tomaría. LoadHarness la registra como fuente explícita.
+ */
+public class LoadTestSecurity {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public SecurityFilterChain escriturasDePersonas(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter)
+            throws Exception {
+        PathPatternRequestMatcher.Builder rutas = PathPatternRequestMatcher.withDefaults();
+
+        http.securityMatcher(new OrRequestMatcher(
+                        rutas.matcher(HttpMethod.POST, "/personas"),
+                        rutas.matcher(HttpMethod.PUT, "/personas/{id}"),
+                        rutas.matcher(HttpMethod.DELETE, "/personas/{id}")))
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasRole("ADMIN"))
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        return http.build();
+    }
+}
@@ -0,0 +1,115 @@
+package digitalers.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digitalers.dto.PersonaView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Costo de codificar y decodificar una página de GET /personas en cada formato negociable
+ * (JSON, CBOR, Smile), con y sin gzip. Antes de los benchmarks, main imprime los bytes que
+ * viajan por la red en cada combinación.
+ *
+ * Ejecutar igual que {@link PersonaJsonBenchmark}, con la clase digitalers.benchmark.PersonaFormatBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonaFormatBenchmark {
+
+    private static final TypeReference<List<PersonaView>> LISTA = new TypeReference<>() {};
+
+    @Param({"json", "cbor", "smile"})
+    String formato;
+
+    @Param({"false", "true"})
+    boolean gzip;
+
+    /**
+     * 50 es el limit por defecto de GET /personas y 500 el máximo.
+     */
+    @Param({"50", "500"})
+    int pagina;
+
+    private ObjectMapper mapper;
+    private List<PersonaView> personas;
+    private byte[] codificado;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (formato) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        personas = new ArrayList<>(pagina);
+        for (long i = 1; i <= pagina; i++) {
+            // Pocas direcciones distintas, como en los datos reales: muchos valores repetidos
+            personas.add(new PersonaView(i, "Persona " + i, 20 + (int) (i % 60), i % 100, "Calle " + (i % 100),
+                    "Barrio " + (i % 20), String.valueOf(100 + i % 100), "11-5555-" + i, "persona" + i + "@mail.com", 0L));
+        }
+        codificado = codificar();
+    }
+
+    @Benchmark
+    public byte[] codificar() throws IOException {
+        if (!gzip) {
+            return mapper.writeValueAsBytes(personas);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            mapper.writeValue(gz, personas);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public List<PersonaView> decodificar() throws IOException {
+        InputStream in = new ByteArrayInputStream(codificado);
+        return mapper.readValue(gzip ? new GZIPInputStream(in) : in, LISTA);
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        System.out.println("pagina  formato  gzip   bytes");
+        for (int pagina : new int[]{50, 500}) {
+            for (String formato : new String[]{"json", "cbor", "smile"}) {
+                for (boolean gzip : new boolean[]{false, true}) {
+                    PersonaFormatBenchmark benchmark = new PersonaFormatBenchmark();
+                    benchmark.formato = formato;
+                    benchmark.gzip = gzip;
+                    benchmark.pagina = pagina;
+                    benchmark.setUp();
+                    System.out.printf("%6d  %-7s  %-5s  %6d%n", pagina, formato, gzip, benchmark.codificado.length);
+                }
+            }
+        }
+        new Runner(new OptionsBuilder().include(PersonaFormatBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,128 @@
+package digitalers.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digitalers.cache.PersonaJsonCache;
+import digitalers.datasource.ReplicaLagMonitor;
+import digitalers.dto.PersonaView;
+import digitalers.entity.Direccion;
+import digitalers.entity.Persona;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la serialización con Jackson en cada respuesta (camino anterior) contra los bytes
+ * de {@link PersonaJsonCache}, para una persona y para una página de listado. Incluye la
+ * serialización de la misma página como entidades {@link Persona} (con su Direccion).
+ *
+ * Ejecutar con:
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        digitalers.benchmark.PersonaJsonBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonaJsonBenchmark {
+
+    /**
+     * Tamaño de la página del listado (50 es el limit por defecto de GET /personas).
+     */
+    @Param({"50", "500"})
+    int pagina;
+
+    private ObjectMapper objectMapper;
+    private PersonaJsonCache cache;
+    private List<PersonaView> personas;
+    private PersonaView persona;
+    private List<Persona> entidades;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cache = new PersonaJsonCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "maxSize", 10000);
+        ReflectionTestUtils.setField(cache, "replicaLag", new ReplicaLagMonitor());
+        ReflectionTestUtils.invokeMethod(cache, "init");
+
+        personas = new ArrayList<>(pagina);
+        for (long i = 1; i <= pagina; i++) {
+            personas.add(new PersonaView(i, "Persona " + i, 20 + (int) (i % 60), i % 100, "Calle " + (i % 100),
+                    "Barrio " + (i % 20), String.valueOf(100 + i), "11-5555-" + i, "persona" + i + "@mail.com", 0L));
+        }
+        persona = personas.get(0);
+
+        entidades = new ArrayList<>(pagina);
+        for (PersonaView view : personas) {
+            Direccion direccion = new Direccion();
+            direccion.setId(view.direccion().id());
+            direccion.setCalle(view.direccion().calle());
+            direccion.setBarrio(view.direccion().barrio());
+            direccion.setAltura(view.direccion().altura());
+
+            Persona entidad = new Persona();
+            entidad.setId(view.id());
+            entidad.setNombre(view.nombre());
+            entidad.setEdad(view.edad());
+            entidad.setDireccion(direccion);
+            entidad.setTelefono(view.telefono());
+            entidad.setEmail(view.email());
+            entidad.setVersion(view.version());
+            entidades.add(entidad);
+        }
+        // Cache caliente: todas las personas de la página ya serializadas
+        cache.toJsonArray(personas, cache.marca());
+    }
+
+    @Benchmark
+    public byte[] personaJackson() throws Exception {
+        return objectMapper.writeValueAsBytes(persona);
+    }
+
+    @Benchmark
+    public byte[] personaCache() {
+        return cache.get(persona.id(), id -> persona).json();
+    }
+
+    @Benchmark
+    public byte[] listadoJackson() throws Exception {
+        return objectMapper.writeValueAsBytes(personas);
+    }
+
+    @Benchmark
+    public byte[] listadoEntidadesJackson() throws Exception {
+        return objectMapper.writeValueAsBytes(entidades);
+    }
+
+    @Benchmark
+    public byte[] listadoCache() {
+        return cache.toJsonArray(personas, cache.marca());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PersonaJsonBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,179 @@
+package digitalers.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digitalers.PersonaApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Escenario de carga compartido por ThreadingLoadComparison y StackLoadComparison.
+ *
+ * Carga de bucle cerrado: N clientes concurrentes que envían el siguiente pedido apenas
+ * reciben la respuesta anterior, con 3 s de calentamiento sin medir.
+ */
+final class PersonasLoadScenario {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private PersonasLoadScenario() {
+    }
+
+    record Resultado(String modo, String endpoint, long pedidos, long errores, double segundos, long[] latenciasNanos) {
+
+        double throughput() {
+            return pedidos / segundos;
+        }
+
+        double percentilMillis(double p) {
+            if (latenciasNanos.length == 0) {
+                return 0;
+            }
+            int i = (int) Math.ceil(p / 100 * latenciasNanos.length) - 1;
+            return latenciasNanos[Math.max(0, Math.min(i, latenciasNanos.length - 1))] / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Inicia sesión como admin, carga 2000 personas con POST /personas/batch y mide GET /personas
+     * (páginas al azar de 50) y POST /login contra el servidor indicado.
+     *
+     * @param modo Etiqueta del servidor medido (aparece en la tabla de resultados)
+     * @param base URL base, por ejemplo http://localhost:8080
+     */
+    static List<Resultado> medir(String modo, String base, int clientes, int segundos) throws Exception {
+        HttpClient http = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+
+        String token = login(http, base);
+        sembrar(http, base, token);
+
+        HttpRequest login = HttpRequest.newBuilder(URI.create(base + "/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"123\"}"))
+                .build();
+        Function<Integer, HttpRequest> personas = i -> HttpRequest.newBuilder(
+                        URI.create(base + "/personas?limit=50&page=" + ThreadLocalRandom.current().nextInt(40)))
+                .header("Authorization", "Bearer " + token)
+                .GET().build();
+
+        List<Resultado> resultados = new ArrayList<>();
+        resultados.add(cargar(modo, "GET /personas", http, personas, clientes, segundos));
+        resultados.add(cargar(modo, "POST /login", http, i -> login, clientes, segundos));
+        return resultados;
+    }
+
+    /**
+     * Levanta la aplicación servlet en un puerto libre con los argumentos indicados, ejecuta
+     * {@link #medir} contra ella y la detiene.
+     */
+    static List<Resultado> medirServlet(String modo, int clientes, int segundos, String... args) throws Exception {
+        String[] argumentos = new String[args.length + 2];
+        argumentos[0] = "--server.port=0";
+        argumentos[1] = "--logging.level.root=WARN";
+        System.arraycopy(args, 0, argumentos, 2, args.length);
+
+        try (ConfigurableApplicationContext context = SpringApplication.run(PersonaApplication.class, argumentos)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            return medir(modo, "http://localhost:" + port, clientes, segundos);
+        }
+    }
+
+    static void imprimir(List<Resultado> resultados, int clientes, int segundos) {
+        System.out.printf("%nclientes=%d, %d s por endpoint%n", clientes, segundos);
+        System.out.printf("%-9s %-15s %10s %8s %9s %9s%n", "modo", "endpoint", "req/s", "errores", "p50 ms", "p99 ms");
+        for (Resultado r : resultados) {
+            System.out.printf("%-9s %-15s %10.0f %8d %9.2f %9.2f%n", r.modo(), r.endpoint(), r.throughput(), r.errores(),
+                    r.percentilMillis(50), r.percentilMillis(99));
+        }
+    }
+
+    private static Resultado cargar(String modo, String endpoint, HttpClient http, Function<Integer, HttpRequest> pedido,
+                                    int clientes, int segundos) throws InterruptedException {
+        // Calentamiento (JIT, caches) sin medir
+        correr(http, pedido, clientes, Duration.ofSeconds(3), null, new AtomicLong());
+
+        long[][] porCliente = new long[clientes][];
+        AtomicLong errores = new AtomicLong();
+        long inicio = System.nanoTime();
+        correr(http, pedido, clientes, Duration.ofSeconds(segundos), porCliente, errores);
+        double transcurrido = (System.nanoTime() - inicio) / 1e9;
+
+        long[] latencias = Arrays.stream(porCliente).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Resultado(modo, endpoint, latencias.length, errores.get(), transcurrido, latencias);
+    }
+
+    private static void correr(HttpClient http, Function<Integer, HttpRequest> pedido, int clientes, Duration duracion,
+                               long[][] porCliente, AtomicLong errores) throws InterruptedException {
+        long fin = System.nanoTime() + duracion.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientes; c++) {
+                int cliente = c;
+                executor.submit(() -> {
+                    long[] latencias = new long[1024];
+                    int n = 0;
+                    while (System.nanoTime() < fin) {
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> r = http.send(pedido.apply(cliente), HttpResponse.BodyHandlers.ofByteArray());
+                            if (r.statusCode() >= 400) {
+                                errores.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errores.incrementAndGet();
+                            continue;
+                        }
+                        if (n == latencias.length) {
+                            latencias = Arrays.copyOf(latencias, n * 2);
+                        }
+                        latencias[n++] = System.nanoTime() - t0;
+                    }
+                    if (porCliente != null) {
+                        porCliente[cliente] = Arrays.copyOf(latencias, n);
+                    }
+                });
+            }
+        }
+    }
+
+    private static String login(HttpClient http, String base) throws Exception {
+        HttpResponse<String> r = http.send(HttpRequest.newBuilder(URI.create(base + "/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"123\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode body = MAPPER.readTree(r.body());
+        return body.get("accessToken").asText();
+    }
+
+    private static void sembrar(HttpClient http, String base, String token) throws Exception {
+        StringBuilder lote = new StringBuilder("[");
+        for (int i = 0; i < 2000; i++) {
+            if (i > 0) {
+                lote.append(',');
+            }
+            lote.append("{\"nombre\":\"carga").append(i).append("\",\"edad\":").append(18 + i % 60)
+                    .append(",\"direccionId\":1,\"telefono\":\"t-").append(i).append("\",\"email\":\"carga").append(i).append("@test.com\"}");
+        }
+        lote.append(']');
+        http.send(HttpRequest.newBuilder(URI.create(base + "/personas/batch"))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofString(lote.toString()))
+                .build(), HttpResponse.BodyHandlers.discarding());
+    }
+}
@@ -0,0 +1,36 @@
+package digitalers.benchmark;
+
+import digitalers.benchmark.PersonasLoadScenario.Resultado;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compara la aplicación servlet (Tomcat + JPA, con hilos de plataforma y con el perfil "virtual")
+ * contra la variante reactiva del módulo reactive/ (Netty + R2DBC) con el mismo escenario de
+ * PersonasLoadScenario: GET /personas y POST /login.
+ *
+ * La aplicación servlet se levanta en este proceso en un puerto libre; la reactiva se ejecuta
+ * aparte, recién iniciada (el escenario carga 2000 personas en cada servidor):
+ *   (cd reactive && mvn package -DskipTests && java -jar target/Persona-reactive-0.0.1-SNAPSHOT.jar)
+ *
+ * Ejecutar con:
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        digitalers.benchmark.StackLoadComparison [urlReactiva=http://localhost:8081] [clientes=400] [segundos=15]
+ */
+public class StackLoadComparison {
+
+    public static void main(String[] args) throws Exception {
+        String reactiva = args.length > 0 ? args[0] : "http://localhost:8081";
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 15;
+
+        List<Resultado> resultados = new ArrayList<>();
+        resultados.addAll(PersonasLoadScenario.medirServlet("platform", clientes, segundos));
+        resultados.addAll(PersonasLoadScenario.medirServlet("virtual", clientes, segundos, "--spring.profiles.active=virtual"));
+        resultados.addAll(PersonasLoadScenario.medir("reactive", reactiva, clientes, segundos));
+
+        PersonasLoadScenario.imprimir(resultados, clientes, segundos);
+    }
+}
@@ -0,0 +1,32 @@
+package digitalers.benchmark;
+
+import digitalers.benchmark.PersonasLoadScenario.Resultado;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compara throughput y latencia (p50/p99) de GET /personas y POST /login con hilos de plataforma
+ * (configuración por defecto) y con el perfil "virtual" (spring.threads.virtual.enabled=true).
+ *
+ * Levanta la aplicación en un puerto libre para cada modo, carga 2000 personas y ejecuta el
+ * escenario de PersonasLoadScenario.
+ *
+ * Ejecutar con:
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        digitalers.benchmark.ThreadingLoadComparison [clientes=400] [segundos=15]
+ */
+public class ThreadingLoadComparison {
+
+    public static void main(String[] args) throws Exception {
+        int clientes = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int segundos = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+
+        List<Resultado> resultados = new ArrayList<>();
+        resultados.addAll(PersonasLoadScenario.medirServlet("platform", clientes, segundos));
+        resultados.addAll(PersonasLoadScenario.medirServlet("virtual", clientes, segundos, "--spring.profiles.active=virtual"));
+
+        PersonasLoadScenario.imprimir(resultados, clientes, segundos);
+    }
+}
@@ -0,0 +1,132 @@
+package digitalers.benchmark;
+
+import digitalers.auth.JwtUtil;
+import digitalers.auth.SecurityStampRegistry;
+import digitalers.auth.VerifiedToken;
+import digitalers.entity.Role;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tamaño y costo del token de acceso según el formato de los claims:
+ *
+ * - "anterior": como lo emitía el login antes del claim compacto: "username" repetido, la lista
+ *   de entidades Role serializada ({"id":..,"authority":..}), "email" y "stamp".
+ * - "compacto": {@link JwtUtil#generateAccessToken} con "rl" (máscara de roles) y "stamp".
+ * - "compacto+email": lo mismo con "email" como claim opcional.
+ *
+ * El cache de tokens verificados está deshabilitado: "verify" mide la verificación del HMAC y
+ * el parseo de los claims de un token nuevo. main() imprime antes el tamaño de cada token (lo
+ * que viaja en el header Authorization de cada petición).
+ *
+ * Ejecutar con:
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        digitalers.benchmark.TokenClaimsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenClaimsBenchmark {
+
+    private static final String EMAIL = "admin@admin.com";
+
+    @Param({"anterior", "compacto", "compacto+email"})
+    String formato;
+
+    private JwtUtil jwtUtil;
+    private User user;
+    private SecurityStampRegistry stamps;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = jwtUtil(formato);
+        user = new User("admin", "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_USER")));
+        stamps = new SecurityStampRegistry();
+        token = generate(formato, jwtUtil, user, stamps);
+    }
+
+    private static JwtUtil jwtUtil(String formato) {
+        JwtUtil jwtUtil = JwtBenchmark.jwtUtil(0);
+        if (formato.endsWith("+email")) {
+            // Mismo JwtUtil con "jwt.claims.optional=email"
+            ReflectionTestUtils.setField(jwtUtil, "optionalClaims", new String[]{"email"});
+        }
+        return jwtUtil;
+    }
+
+    private static String generate(String formato, JwtUtil jwtUtil, User user, SecurityStampRegistry stamps) {
+        if ("anterior".equals(formato)) {
+            return jwtUtil.generateToken(user, legacyClaims(stamps));
+        }
+        return jwtUtil.generateAccessToken(user, stamps.current(user.getUsername()),
+                claim -> "email".equals(claim) ? EMAIL : null);
+    }
+
+    /**
+     * Claims que armaba AuthController antes del claim compacto.
+     */
+    private static Map<String, Object> legacyClaims(SecurityStampRegistry stamps) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("username", "admin");
+        claims.put("roles", List.of(role(2L, "ROLE_ADMIN"), role(3L, "ROLE_USER")));
+        claims.put("email", EMAIL);
+        claims.put(SecurityStampRegistry.CLAIM, stamps.current("admin"));
+        return claims;
+    }
+
+    private static Role role(Long id, String authority) {
+        Role role = new Role();
+        role.setId(id);
+        role.setAuthority(authority);
+        return role;
+    }
+
+    @Benchmark
+    public String generate() {
+        return generate(formato, jwtUtil, user, stamps);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtUtil.verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        User user = new User("admin", "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_USER")));
+        SecurityStampRegistry stamps = new SecurityStampRegistry();
+        System.out.printf("%-16s %8s %10s%n", "formato", "bytes", "roles");
+        for (String formato : List.of("anterior", "compacto", "compacto+email")) {
+            JwtUtil jwtUtil = jwtUtil(formato);
+            String token = generate(formato, jwtUtil, user, stamps);
+            System.out.printf("%-16s %8d %10s%n", formato, token.getBytes(StandardCharsets.US_ASCII).length,
+                    jwtUtil.verify(token).roles());
+        }
+        new Runner(new OptionsBuilder().include(TokenClaimsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,79 @@
+package digitalers.benchmark;
+
+import digitalers.PersonaApplication;
+import digitalers.service.UserDetailService;
+import digitalers.service.impl.CachingUserDetailService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de UserDetailServiceImpl.loadUserByUsername contra la base H2 de la aplicación
+ * (usuario + roles, con la transacción de solo lectura), y del mismo pedido a través de
+ * CachingUserDetailService, que es la implementación que usan el filtro JWT y el login.
+ *
+ * Levanta el contexto completo sin servidor web, con el esquema e import.sql habituales.
+ *
+ * Ejecutar con:
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        digitalers.benchmark.UserDetailServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// Calentamiento largo: las consultas se estabilizan recién cuando el JIT compiló Hibernate y H2
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDetailServiceBenchmark {
+
+    /**
+     * "h2" = UserDetailServiceImpl (consulta en cada llamada), "cache" = CachingUserDetailService.
+     */
+    @Param({"h2", "cache"})
+    String origen;
+
+    private ConfigurableApplicationContext context;
+    private UserDetailService userDetailService;
+
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(PersonaApplication.class,
+                "--spring.main.web-application-type=none", "--logging.level.root=WARN");
+        userDetailService = "cache".equals(origen)
+                ? context.getBean(CachingUserDetailService.class)
+                : context.getBean("userDetailServiceImpl", UserDetailService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User loadUserByUsername() {
+        return userDetailService.loadUserByUsername("admin");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserDetailServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,122 @@
+package digitalers.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digitalers.auth.JwtUtil;
+import digitalers.auth.RefreshTokenStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Renovación de tokens en /login/refresh: rotación, detección de reutilización y persistencia
+ * de los tokens usados.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthControllerRefreshTests {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void renuevaYRotaElRefreshToken() throws Exception {
+        String refreshToken = jwtUtil.generateRefreshToken(new User("admin", "", List.of()));
+
+        JsonNode tokens = MAPPER.readTree(refresh(refreshToken)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        assertThat(tokens.get("refreshToken").asText()).isNotEqualTo(refreshToken);
+        mockMvc.perform(get("/personas/{id}", 1).header("Authorization", "Bearer " + tokens.get("accessToken").asText()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void reutilizarUnRefreshTokenRevocaLaFamilia() throws Exception {
+        String original = jwtUtil.generateRefreshToken(new User("admin", "", List.of()));
+        String rotado = MAPPER.readTree(refresh(original)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("refreshToken").asText();
+
+        refresh(original).andExpect(status().isUnauthorized());
+        // El token legítimo de la misma familia también queda revocado
+        refresh(rotado).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void rechazaTokensQueNoSonDeRefresco() throws Exception {
+        String refreshToken = jwtUtil.generateRefreshToken(new User("admin", "", List.of()));
+        String accessToken = jwtUtil.generateToken(new User("admin", "", List.of()), Map.of());
+
+        refresh(accessToken).andExpect(status().isUnauthorized());
+        refresh("no-es-un-jwt").andExpect(status().isUnauthorized());
+        // Un refresh token no autentica como token de acceso
+        mockMvc.perform(get("/personas/{id}", 1).header("Authorization", "Bearer " + refreshToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void losTokensUsadosSobrevivenAUnReinicio(@TempDir Path dir) throws Exception {
+        String archivo = dir.resolve("refresh-tokens.log").toString();
+        String familia = UUID.randomUUID().toString();
+        long expira = System.currentTimeMillis() + 60_000;
+
+        RefreshTokenStore store = store(archivo);
+        assertThat(store.markUsed("jti-1", expira)).isTrue();
+        store.revokeFamily(familia);
+        ReflectionTestUtils.invokeMethod(store, "shutdown");
+
+        RefreshTokenStore reiniciado = store(archivo);
+        assertThat(reiniciado.markUsed("jti-1", expira)).isFalse();
+        assertThat(reiniciado.isRevoked(familia, "admin", System.currentTimeMillis())).isTrue();
+        assertThat(reiniciado.markUsed("jti-2", expira)).isTrue();
+        ReflectionTestUtils.invokeMethod(reiniciado, "shutdown");
+    }
+
+    @Test
+    void otroProcesoNoPuedeUsarElMismoArchivo(@TempDir Path dir) {
+        String archivo = dir.resolve("refresh-tokens.log").toString();
+
+        RefreshTokenStore store = store(archivo);
+        assertThatThrownBy(() -> store(archivo)).isInstanceOf(IllegalStateException.class);
+        ReflectionTestUtils.invokeMethod(store, "shutdown");
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/login/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"));
+    }
+
+    private static RefreshTokenStore store(String archivo) {
+        RefreshTokenStore store = new RefreshTokenStore();
+        ReflectionTestUtils.setField(store, "storeFile", archivo);
+        ReflectionTestUtils.setField(store, "purgeIntervalSeconds", 600L);
+        ReflectionTestUtils.invokeMethod(store, "init");
+        return store;
+    }
+}
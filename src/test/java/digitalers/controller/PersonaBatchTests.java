@@ -0,0 +1,145 @@
+package digitalers.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digitalers.auth.JwtUtil;
+import digitalers.auth.SecurityStampRegistry;
+import digitalers.repository.PersonaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Endpoints /personas/batch: resultado por elemento, validaciones dentro del lote y reintento
+ * elemento por elemento cuando falla un bloque. Con bloques de 2 elementos para que cada pedido
+ * se escriba en varias transacciones.
+ */
+@SpringBootTest(properties = "personas.batch.chunk-size=2")
+@AutoConfigureMockMvc
+class PersonaBatchTests {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Email de la persona cargada por import.sql */
+    private static final String EMAIL_EXISTENTE = "rosten2016@gmail.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PersonaRepository personaRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private SecurityStampRegistry securityStampRegistry;
+
+    private final List<Long> creadas = new ArrayList<>();
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        token = jwtUtil.generateToken(
+                new User("admin", "", List.of()),
+                Map.of("roles", List.of("ROLE_ADMIN", "ROLE_USER"),
+                        SecurityStampRegistry.CLAIM, securityStampRegistry.current("admin")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        personaRepository.deleteAllById(creadas);
+    }
+
+    @Test
+    void informaElResultadoDeCadaElemento() throws Exception {
+        JsonNode resultados = crear("[" + persona("lote-a", 1) + "," + persona("lote-b", 999_999) + ","
+                + persona("lote-c", 1) + "]");
+
+        assertThat(estados(resultados)).containsExactly("OK", "ERROR", "OK");
+        assertThat(resultados.get(1).get("error").asText()).isEqualTo("La direccion 999999 no existe");
+        assertThat(personaRepository.existsById(resultados.get(0).get("id").asLong())).isTrue();
+        assertThat(personaRepository.existsById(resultados.get(2).get("id").asLong())).isTrue();
+    }
+
+    @Test
+    void rechazaRepetidosDentroDelLote() throws Exception {
+        JsonNode resultados = crear("[" + persona("lote-d", 1) + "," + persona("lote-d", 1) + "]");
+
+        assertThat(estados(resultados)).containsExactly("OK", "ERROR");
+        assertThat(resultados.get(1).get("error").asText()).isEqualTo("Email o telefono repetido dentro del lote");
+
+        JsonNode borrados = enviar(delete("/personas/batch"), "[" + resultados.get(0).get("id").asLong() + ","
+                + resultados.get(0).get("id").asLong() + "]");
+        assertThat(estados(borrados)).containsExactly("OK", "ERROR");
+    }
+
+    @Test
+    void siFallaUnBloqueReintentaElementoPorElemento() throws Exception {
+        // El primer bloque (2 elementos) falla por el email ya registrado en la base
+        String repetido = "{\"nombre\":\"lote-f\",\"edad\":30,\"direccionId\":1,\"telefono\":\"lote-f\",\"email\":\""
+                + EMAIL_EXISTENTE + "\"}";
+        JsonNode resultados = crear("[" + persona("lote-e", 1) + "," + repetido + "," + persona("lote-g", 1) + "]");
+
+        assertThat(estados(resultados)).containsExactly("OK", "ERROR", "OK");
+        assertThat(resultados.get(1).get("error").asText()).contains("restriccion");
+        assertThat(personaRepository.existsById(resultados.get(0).get("id").asLong())).isTrue();
+        assertThat(personaRepository.existsById(resultados.get(2).get("id").asLong())).isTrue();
+
+        // Actualización en varios bloques con un id inexistente
+        long id = resultados.get(0).get("id").asLong();
+        JsonNode actualizados = enviar(put("/personas/batch"), "[{\"id\":" + id
+                + ",\"nombre\":\"lote-e2\",\"edad\":31,\"direccionId\":1,\"telefono\":\"lote-e\",\"email\":\"lote-e@test.com\"},"
+                + "{\"id\":-1,\"nombre\":\"x\",\"edad\":1,\"direccionId\":1,\"telefono\":\"x\",\"email\":\"x@test.com\"}]");
+        assertThat(estados(actualizados)).containsExactly("OK", "ERROR");
+        assertThat(personaRepository.findById(id).orElseThrow().getNombre()).isEqualTo("lote-e2");
+    }
+
+    private JsonNode crear(String cuerpo) throws Exception {
+        JsonNode resultados = enviar(post("/personas/batch"), cuerpo);
+        for (JsonNode resultado : resultados) {
+            if ("OK".equals(resultado.get("status").asText())) {
+                creadas.add(resultado.get("id").asLong());
+            }
+        }
+        return resultados;
+    }
+
+    private JsonNode enviar(MockHttpServletRequestBuilder request, String cuerpo) throws Exception {
+        return MAPPER.readTree(mockMvc.perform(request
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpo))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private static List<String> estados(JsonNode resultados) {
+        List<String> estados = new ArrayList<>();
+        resultados.forEach(resultado -> estados.add(resultado.get("status").asText()));
+        return estados;
+    }
+
+    private static String persona(String nombre, long direccionId) {
+        return "{\"nombre\":\"" + nombre + "\",\"edad\":30,\"direccionId\":" + direccionId + ",\"telefono\":\""
+                + nombre + "\",\"email\":\"" + nombre + "@test.com\"}";
+    }
+}
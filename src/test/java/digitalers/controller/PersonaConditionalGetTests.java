@@ -0,0 +1,153 @@
+package digitalers.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digitalers.auth.JwtUtil;
+import digitalers.auth.SecurityStampRegistry;
+import digitalers.entity.Persona;
+import digitalers.repository.DireccionRepository;
+import digitalers.repository.PersonaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET condicionales de personas: 304 mientras no haya cambios y 200 después de una escritura,
+ * tanto con If-None-Match como solo con If-Modified-Since (resolución de segundos).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PersonaConditionalGetTests {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PersonaRepository personaRepository;
+
+    @Autowired
+    private DireccionRepository direccionRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private SecurityStampRegistry securityStampRegistry;
+
+    private Persona persona;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        Persona nueva = new Persona();
+        nueva.setNombre("condicional");
+        nueva.setEdad(30);
+        nueva.setEmail("condicional@test.com");
+        nueva.setTelefono("cond-1");
+        nueva.setDireccion(direccionRepository.findById(1L).orElseThrow());
+        persona = personaRepository.save(nueva);
+
+        token = jwtUtil.generateToken(
+                new User("admin", "", List.of()),
+                Map.of("roles", List.of("ROLE_ADMIN", "ROLE_USER"),
+                        SecurityStampRegistry.CLAIM, securityStampRegistry.current("admin")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        personaRepository.deleteById(persona.getId());
+    }
+
+    @Test
+    void listadoConIfNoneMatchResponde304HastaQueHayUnCambio() throws Exception {
+        String etag = obtener(autorizado(get("/personas"))).getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        mockMvc.perform(autorizado(get("/personas")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        modificar("condicional-2");
+
+        mockMvc.perform(autorizado(get("/personas")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void listadoConIfModifiedSinceRespondeDatosNuevosTrasUnCambioEnElMismoSegundo() throws Exception {
+        String lastModified = obtener(autorizado(get("/personas"))).getHeader(HttpHeaders.LAST_MODIFIED);
+        assertThat(lastModified).isNotNull();
+
+        mockMvc.perform(autorizado(get("/personas")).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+
+        modificar("condicional-3");
+
+        mockMvc.perform(autorizado(get("/personas")).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void personaConIfNoneMatchResponde304HastaQueCambia() throws Exception {
+        String etag = obtener(autorizado(get("/personas/{id}", persona.getId()))).getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(autorizado(get("/personas/{id}", persona.getId())).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        modificar("condicional-4");
+
+        mockMvc.perform(autorizado(get("/personas/{id}", persona.getId())).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void personaConIfModifiedSinceRespondeDatosNuevosTrasUnCambio() throws Exception {
+        String lastModified = obtener(autorizado(get("/personas/{id}", persona.getId()))).getHeader(HttpHeaders.LAST_MODIFIED);
+
+        modificar("condicional-5");
+
+        String cuerpo = mockMvc.perform(autorizado(get("/personas/{id}", persona.getId()))
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(MAPPER.readTree(cuerpo).get("nombre").asText()).isEqualTo("condicional-5");
+    }
+
+    /**
+     * PATCH con la versión vigente de la persona de prueba.
+     */
+    private void modificar(String nombre) throws Exception {
+        long version = MAPPER.readTree(obtener(autorizado(get("/personas/{id}", persona.getId())))
+                .getContentAsString()).get("version").asLong();
+        mockMvc.perform(autorizado(patch("/personas/{id}", persona.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"version\":" + version + ",\"nombre\":\"" + nombre + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    private MockHttpServletResponse obtener(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse();
+    }
+
+    private MockHttpServletRequestBuilder autorizado(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", "Bearer " + token);
+    }
+}
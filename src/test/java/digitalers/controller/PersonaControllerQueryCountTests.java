@@ -0,0 +1,132 @@
+package digitalers.controller;
+
+import digitalers.auth.JwtUtil;
+import digitalers.auth.SecurityStampRegistry;
+import digitalers.entity.Direccion;
+import digitalers.entity.Persona;
+import digitalers.repository.DireccionRepository;
+import digitalers.repository.PersonaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica que las lecturas de personas ejecuten una sola sentencia SQL por petición,
+ * sin importar cuántas direcciones distintas aparezcan en la página (sin N+1).
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class PersonaControllerQueryCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PersonaRepository personaRepository;
+
+    @Autowired
+    private DireccionRepository direccionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private SecurityStampRegistry securityStampRegistry;
+
+    private final List<Persona> personas = new ArrayList<>();
+    private final List<Direccion> direcciones = new ArrayList<>();
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            Direccion direccion = new Direccion();
+            direccion.setCalle("Calle " + i);
+            direccion.setBarrio("Barrio " + i);
+            direccion.setAltura(String.valueOf(100 + i));
+            direcciones.add(direccionRepository.save(direccion));
+
+            Persona persona = new Persona();
+            persona.setNombre("query-count-" + i);
+            persona.setEdad(20 + i);
+            persona.setEmail("query-count-" + i + "@test.com");
+            persona.setTelefono("qc-" + i);
+            persona.setDireccion(direccion);
+            personas.add(personaRepository.save(persona));
+        }
+
+        token = jwtUtil.generateToken(
+                new User("admin", "", List.of()),
+                Map.of("roles", List.of("ROLE_ADMIN", "ROLE_USER"),
+                        SecurityStampRegistry.CLAIM, securityStampRegistry.current("admin")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        personaRepository.deleteAll(personas);
+        direccionRepository.deleteAll(direcciones);
+    }
+
+    @Test
+    void listadoEjecutaUnaSolaSentencia() throws Exception {
+        Statistics statistics = statistics();
+
+        mockMvc.perform(get("/personas").param("limit", "10").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(6))
+                .andExpect(jsonPath("$[1].direccion.calle").value("Calle 0"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void listadoPorOffsetEjecutaUnaSolaSentencia() throws Exception {
+        Statistics statistics = statistics();
+
+        mockMvc.perform(get("/personas").param("page", "0").param("limit", "10").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(6));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void personaPorIdEjecutaUnaSolaSentencia() throws Exception {
+        Statistics statistics = statistics();
+
+        mockMvc.perform(get("/personas/{id}", personas.get(2).getId()).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.direccion.barrio").value("Barrio 2"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
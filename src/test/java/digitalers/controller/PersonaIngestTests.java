@@ -0,0 +1,187 @@
+package digitalers.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digitalers.auth.JwtUtil;
+import digitalers.auth.SecurityStampRegistry;
+import digitalers.dto.IngestStatus;
+import digitalers.repository.PersonaRepository;
+import digitalers.service.PersonaServicio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ingesta asíncrona en POST /personas/ingest: 202 con tracking id, estado final consultable
+ * y 503 cuando la cola está llena.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PersonaIngestTests {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private SecurityStampRegistry securityStampRegistry;
+
+    @Autowired
+    private PersonaRepository personaRepository;
+
+    private final List<Long> creadas = new ArrayList<>();
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        token = jwtUtil.generateToken(
+                new User("admin", "", List.of()),
+                Map.of("roles", List.of("ROLE_ADMIN", "ROLE_USER"),
+                        SecurityStampRegistry.CLAIM, securityStampRegistry.current("admin")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        personaRepository.deleteAllById(creadas);
+    }
+
+    @Test
+    void aceptaConTrackingIdYTerminaCreada() throws Exception {
+        MvcResult result = ingestar(persona("ingesta-a", 1)).andReturn();
+        assertThat(result.getResponse().getStatus()).isEqualTo(202);
+        String trackingId = MAPPER.readTree(result.getResponse().getContentAsString()).get("trackingId").asText();
+        assertThat(result.getResponse().getHeader(HttpHeaders.LOCATION)).isEqualTo("/personas/ingest/" + trackingId);
+
+        JsonNode estado = esperarEstadoFinal(trackingId);
+        assertThat(estado.get("estado").asText()).isEqualTo(IngestStatus.CREADA);
+        creadas.add(estado.get("id").asLong());
+        assertThat(personaRepository.existsById(estado.get("id").asLong())).isTrue();
+    }
+
+    @Test
+    void unaPersonaInvalidaTerminaConError() throws Exception {
+        MvcResult result = ingestar(persona("ingesta-b", 999_999)).andReturn();
+        assertThat(result.getResponse().getStatus()).isEqualTo(202);
+        String trackingId = MAPPER.readTree(result.getResponse().getContentAsString()).get("trackingId").asText();
+
+        JsonNode estado = esperarEstadoFinal(trackingId);
+        assertThat(estado.get("estado").asText()).isEqualTo(IngestStatus.ERROR);
+        assertThat(estado.get("error").asText()).isEqualTo("La direccion 999999 no existe");
+    }
+
+    @Test
+    void unTrackingIdDesconocidoResponde404() throws Exception {
+        mockMvc.perform(get("/personas/ingest/{trackingId}", "no-existe").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Cola de un elemento y lotes de uno; el escritor queda detenido en el primer lote, así la
+     * cola se llena con los pedidos siguientes.
+     */
+    @Nested
+    @TestPropertySource(properties = {
+            "personas.ingest.queue-capacity=1",
+            "personas.ingest.batch-size=1",
+            "personas.ingest.offer-timeout-ms=10"
+    })
+    class ColaLlena {
+
+        // Los beans de este contexto (el de la clase externa no tiene el mock)
+        @Autowired
+        private MockMvc mockMvc;
+
+        @MockitoBean
+        private PersonaServicio personaServicio;
+
+        private final CountDownLatch liberar = new CountDownLatch(1);
+
+        @BeforeEach
+        void detenerEscritor() {
+            when(personaServicio.crearPersonasEnLote(anyList())).thenAnswer(invocation -> {
+                liberar.await(10, TimeUnit.SECONDS);
+                return List.of();
+            });
+        }
+
+        @AfterEach
+        void liberarEscritor() {
+            liberar.countDown();
+        }
+
+        @Test
+        void conLaColaLlenaResponde503() throws Exception {
+            MvcResult rechazado = null;
+            for (int i = 0; i < 10 && rechazado == null; i++) {
+                MvcResult result = ingestar(mockMvc, persona("ingesta-llena-" + i, 1)).andReturn();
+                if (result.getResponse().getStatus() == 503) {
+                    rechazado = result;
+                } else {
+                    assertThat(result.getResponse().getStatus()).isEqualTo(202);
+                }
+            }
+            assertThat(rechazado).isNotNull();
+            assertThat(rechazado.getResponse().getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        }
+    }
+
+    private ResultActions ingestar(String cuerpo) throws Exception {
+        return ingestar(mockMvc, cuerpo);
+    }
+
+    private ResultActions ingestar(MockMvc mockMvc, String cuerpo) throws Exception {
+        return mockMvc.perform(post("/personas/ingest")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(cuerpo));
+    }
+
+    private JsonNode esperarEstadoFinal(String trackingId) throws Exception {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (true) {
+            JsonNode estado = MAPPER.readTree(mockMvc.perform(get("/personas/ingest/{trackingId}", trackingId)
+                            .header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            if (!IngestStatus.PENDIENTE.equals(estado.get("estado").asText()) || System.currentTimeMillis() > limite) {
+                return estado;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static String persona(String nombre, long direccionId) {
+        return "{\"nombre\":\"" + nombre + "\",\"edad\":30,\"direccionId\":" + direccionId + ",\"telefono\":\""
+                + nombre + "\",\"email\":\"" + nombre + "@test.com\"}";
+    }
+}
@@ -0,0 +1,139 @@
+package digitalers.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digitalers.auth.JwtUtil;
+import digitalers.auth.SecurityStampRegistry;
+import digitalers.entity.Persona;
+import digitalers.repository.DireccionRepository;
+import digitalers.repository.PersonaRepository;
+import digitalers.service.impl.PersonaServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Paginación de los listados de personas: cursor keyset de GET /personas y páginas fuera del
+ * rango de un offset int.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PersonaPaginacionTests {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private SecurityStampRegistry securityStampRegistry;
+
+    @Autowired
+    private PersonaRepository personaRepository;
+
+    @Autowired
+    private DireccionRepository direccionRepository;
+
+    private final List<Persona> personas = new ArrayList<>();
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 7; i++) {
+            Persona persona = new Persona();
+            persona.setNombre("paginacion-" + i);
+            persona.setEdad(20 + i);
+            persona.setEmail("paginacion-" + i + "@test.com");
+            persona.setTelefono("pag-" + i);
+            persona.setDireccion(direccionRepository.findById(1L).orElseThrow());
+            personas.add(personaRepository.save(persona));
+        }
+
+        token = jwtUtil.generateToken(
+                new User("admin", "", List.of()),
+                Map.of("roles", List.of("ROLE_ADMIN", "ROLE_USER"),
+                        SecurityStampRegistry.CLAIM, securityStampRegistry.current("admin")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        personaRepository.deleteAll(personas);
+    }
+
+    @Test
+    void elCursorRecorreTodasLasPersonasSinHuecosNiRepetidos() throws Exception {
+        List<Long> esperados = personaRepository.findAll().stream().map(Persona::getId).sorted().toList();
+
+        List<Long> leidos = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            MockHttpServletRequestBuilder request = autorizado(get("/personas").param("limit", "3"));
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MockHttpServletResponse response = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            for (JsonNode persona : MAPPER.readTree(response.getContentAsString())) {
+                leidos.add(persona.get("id").asLong());
+            }
+            cursor = response.getHeader(PersonaServiceImpl.NEXT_CURSOR_HEADER);
+            paginas++;
+        } while (cursor != null && paginas <= esperados.size());
+
+        // La última página no trae cursor y entre todas están todas las personas, en orden
+        assertThat(cursor).isNull();
+        assertThat(leidos).isEqualTo(esperados);
+    }
+
+    @Test
+    void unCursorInvalidoResponde400() throws Exception {
+        for (String cursor : List.of("no-es-un-cursor", "%%%", "cDphYmM")) {
+            mockMvc.perform(autorizado(get("/personas").param("cursor", cursor)))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void listadoConPaginaEnormeRespondeVacio() throws Exception {
+        mockMvc.perform(autorizado(get("/personas").param("page", String.valueOf(Integer.MAX_VALUE)).param("limit", "500")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void filtroConPaginaEnormeRespondeVacio() throws Exception {
+        // 8589935 * 500 desborda int y volvía a empezar en el offset 204
+        for (String page : List.of("8589935", String.valueOf(Integer.MAX_VALUE))) {
+            mockMvc.perform(get("/personas/filter").param("page", page).param("limit", "500")
+                            .header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(0));
+        }
+    }
+
+    private MockHttpServletRequestBuilder autorizado(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", "Bearer " + token);
+    }
+}
@@ -0,0 +1,125 @@
+package digitalers.controller;
+
+import digitalers.auth.JwtUtil;
+import digitalers.auth.SecurityStampRegistry;
+import digitalers.entity.Persona;
+import digitalers.repository.DireccionRepository;
+import digitalers.repository.PersonaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * PATCH /personas/{id}: actualización parcial con bloqueo optimista.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PersonaPatchTests {
+
+    /** Email de la persona cargada por import.sql */
+    private static final String EMAIL_EXISTENTE = "rosten2016@gmail.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PersonaRepository personaRepository;
+
+    @Autowired
+    private DireccionRepository direccionRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private SecurityStampRegistry securityStampRegistry;
+
+    private Persona persona;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        Persona nueva = new Persona();
+        nueva.setNombre("patch");
+        nueva.setEdad(40);
+        nueva.setEmail("patch@test.com");
+        nueva.setTelefono("patch-1");
+        nueva.setDireccion(direccionRepository.findById(1L).orElseThrow());
+        persona = personaRepository.save(nueva);
+
+        token = jwtUtil.generateToken(
+                new User("admin", "", List.of()),
+                Map.of("roles", List.of("ROLE_ADMIN", "ROLE_USER"),
+                        SecurityStampRegistry.CLAIM, securityStampRegistry.current("admin")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        personaRepository.deleteById(persona.getId());
+    }
+
+    @Test
+    void actualizaSoloLosCamposEnviadosEIncrementaLaVersion() throws Exception {
+        modificar(persona.getId(), "{\"version\":" + persona.getVersion() + ",\"edad\":41}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(persona.getId()))
+                .andExpect(jsonPath("$.version").value(persona.getVersion() + 1));
+
+        Persona actual = personaRepository.findById(persona.getId()).orElseThrow();
+        assertThat(actual.getEdad()).isEqualTo(41);
+        assertThat(actual.getNombre()).isEqualTo("patch");
+        assertThat(actual.getVersion()).isEqualTo(persona.getVersion() + 1);
+    }
+
+    @Test
+    void conUnaVersionVencidaResponde409() throws Exception {
+        modificar(persona.getId(), "{\"version\":" + persona.getVersion() + ",\"nombre\":\"patch-2\"}")
+                .andExpect(status().isOk());
+
+        modificar(persona.getId(), "{\"version\":" + persona.getVersion() + ",\"nombre\":\"patch-3\"}")
+                .andExpect(status().isConflict());
+        assertThat(personaRepository.findById(persona.getId()).orElseThrow().getNombre()).isEqualTo("patch-2");
+    }
+
+    @Test
+    void conUnaPersonaInexistenteResponde404() throws Exception {
+        modificar(-1L, "{\"version\":0,\"nombre\":\"nadie\"}")
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void sinVersionResponde400() throws Exception {
+        modificar(persona.getId(), "{\"nombre\":\"sin-version\"}")
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void conUnEmailYaRegistradoResponde409() throws Exception {
+        modificar(persona.getId(), "{\"version\":" + persona.getVersion() + ",\"email\":\"" + EMAIL_EXISTENTE + "\"}")
+                .andExpect(status().isConflict());
+        assertThat(personaRepository.findById(persona.getId()).orElseThrow().getVersion()).isEqualTo(persona.getVersion());
+    }
+
+    private ResultActions modificar(Long id, String cuerpo) throws Exception {
+        return mockMvc.perform(patch("/personas/{id}", id)
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(cuerpo));
+    }
+}
@@ -0,0 +1,198 @@
+package digitalers.datasource;
+
+import digitalers.cache.PersonaJsonCache;
+import digitalers.dto.PersonaPatchDto;
+import digitalers.service.PersonaServicio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ruteo entre dos H2 en memoria: "primaria" (la de la aplicación) y "replica".
+ *
+ * No hay replicación real: {@link #replicar()} copia la primaria completa a la réplica (SCRIPT /
+ * RUNSCRIPT), heartbeat incluido. Después de copiar, la réplica se marca con un nombre distinto
+ * para saber de cuál de las dos salió cada lectura. El heartbeat automático queda fuera de juego
+ * (intervalo de una hora) y se mide a mano.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rw-primaria;DB_CLOSE_DELAY=-1",
+        "datasource.replica.enabled=true",
+        "datasource.replica.url=jdbc:h2:mem:rw-replica;DB_CLOSE_DELAY=-1",
+        "datasource.replica.heartbeat-interval-ms=3600000",
+        "datasource.replica.max-lag-ms=60000"
+})
+class ReadWriteRoutingTests {
+
+    private static final String EN_REPLICA = "en-replica";
+
+    @Autowired
+    @Qualifier("servicioDePersona")
+    private PersonaServicio personaServicio;
+
+    @Autowired
+    private PersonaJsonCache jsonCache;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLag;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primaria;
+    private JdbcTemplate replica;
+    private Long id;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primaria = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        id = primaria.queryForObject("SELECT MIN(PERSONA_ID) FROM PERSONAS", Long.class);
+        primaria.update("UPDATE PERSONAS SET NOMBRE = 'en-primaria' WHERE PERSONA_ID = ?", id);
+        replicar();
+        marcarReplica(EN_REPLICA);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void lasLecturasDeSoloLecturaVanALaReplica() {
+        assertThat(personaServicio.personaPorId(id).nombre()).isEqualTo(EN_REPLICA);
+        // Una transacción de escritura lee de la primaria
+        String nombre = transactionTemplate.execute(status -> personaServicio.personaPorId(id).nombre());
+        assertThat(nombre).isEqualTo("en-primaria");
+    }
+
+    @Test
+    void lasEscriturasVanALaPrimaria() {
+        escribir("escrito");
+
+        assertThat(primaria.queryForObject("SELECT NOMBRE FROM PERSONAS WHERE PERSONA_ID = ?", String.class, id))
+                .isEqualTo("escrito");
+        assertThat(replica.queryForObject("SELECT NOMBRE FROM PERSONAS WHERE PERSONA_ID = ?", String.class, id))
+                .isEqualTo(EN_REPLICA);
+    }
+
+    @Test
+    void cadaUsuarioLeeLoQueEscribio() throws Exception {
+        autenticar("admin");
+        escribir("nuevo");
+
+        assertThat(personaServicio.personaPorId(id).nombre()).isEqualTo("nuevo");
+        autenticar("otro");
+        assertThat(personaServicio.personaPorId(id).nombre()).isEqualTo(EN_REPLICA);
+
+        // Cuando la réplica tiene la escritura, el usuario vuelve a leer de ella
+        replicar();
+        marcarReplica("en-replica-2");
+        autenticar("admin");
+        assertThat(personaServicio.personaPorId(id).nombre()).isEqualTo("en-replica-2");
+    }
+
+    @Test
+    void losCommitsQueLaReplicaYaTieneSeDescartanAunqueElUsuarioNoVuelvaALeer() throws Exception {
+        ReadWriteRoutingDataSource routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+        autenticar("solo-escribe");
+        escribir("sin-lectura");
+        assertThat(routing.pendingWrites()).isPositive();
+
+        replicar();
+        assertThat(routing.pendingWrites()).isZero();
+    }
+
+    @Test
+    void conMasAtrasoDelToleradoLeeDeLaPrimaria() {
+        replica.update("UPDATE REPLICA_HEARTBEAT SET TS = ?", System.currentTimeMillis() - 120_000);
+        replicaLag.check();
+        assertThat(personaServicio.personaPorId(id).nombre()).isEqualTo("en-primaria");
+
+        replica.update("UPDATE REPLICA_HEARTBEAT SET TS = ?", System.currentTimeMillis());
+        replicaLag.check();
+        assertThat(personaServicio.personaPorId(id).nombre()).isEqualTo(EN_REPLICA);
+    }
+
+    @Test
+    void elCacheNoGuardaLoQueLaReplicaLeyoAntesDeUnaModificacion() throws Exception {
+        Long version = primaria.queryForObject("SELECT VERSION FROM PERSONAS WHERE PERSONA_ID = ?", Long.class, id);
+        personaServicio.modificarPersona(id, new PersonaPatchDto(version, "modificado", null, null, null, null));
+
+        AtomicInteger lecturas = new AtomicInteger();
+        // La réplica todavía no tiene la modificación: se devuelve lo que leyó, pero no se cachea
+        assertThat(json(lecturas)).contains(EN_REPLICA);
+        assertThat(json(lecturas)).contains(EN_REPLICA);
+        assertThat(lecturas).hasValue(2);
+
+        replicar();
+        assertThat(json(lecturas)).contains("modificado");
+        assertThat(json(lecturas)).contains("modificado");
+        assertThat(lecturas).hasValue(3);
+    }
+
+    private String json(AtomicInteger lecturas) {
+        PersonaJsonCache.Entry entry = jsonCache.get(id, personaId -> {
+            lecturas.incrementAndGet();
+            return personaServicio.personaPorId(personaId);
+        });
+        return new String(entry.json(), StandardCharsets.UTF_8);
+    }
+
+    private void escribir(String nombre) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        transactionTemplate.executeWithoutResult(status ->
+                jdbc.update("UPDATE PERSONAS SET NOMBRE = ? WHERE PERSONA_ID = ?", nombre, id));
+    }
+
+    private static void autenticar(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_ADMIN"));
+    }
+
+    /**
+     * Copia la primaria a la réplica con un heartbeat posterior a todos los commits anteriores.
+     */
+    private void replicar() throws Exception {
+        Thread.sleep(2);
+        replicaLag.beat();
+        Path script = Files.createTempFile("replica", ".sql");
+        try {
+            primaria.execute("SCRIPT TO '" + script + "'");
+            replica.execute("DROP ALL OBJECTS");
+            replica.execute("RUNSCRIPT FROM '" + script + "'");
+        } finally {
+            Files.deleteIfExists(script);
+        }
+        replicaLag.check();
+    }
+
+    private void marcarReplica(String nombre) {
+        replica.update("UPDATE PERSONAS SET NOMBRE = ? WHERE PERSONA_ID = ?", nombre, id);
+    }
+}
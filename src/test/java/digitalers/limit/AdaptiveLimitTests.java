@@ -0,0 +1,90 @@
+package digitalers.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comportamiento del límite adaptativo con ventanas simuladas (reloj y latencias fijas).
+ */
+class AdaptiveLimitTests {
+
+    private long now;
+
+    @Test
+    void rechazaAlLlegarAlLimite() {
+        AdaptiveLimit limit = limite(2, 1, 10);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+
+        limit.release(TimeUnit.MILLISECONDS.toNanos(5), false);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void creceHastaElMaximoConLatenciaEstable() {
+        AdaptiveLimit limit = limite(10, 2, 50);
+
+        ventanas(limit, 300, 10, false, true);
+
+        assertThat(limit.getLimit()).isEqualTo(50);
+    }
+
+    @Test
+    void noCreceSinDemanda() {
+        AdaptiveLimit limit = limite(10, 2, 50);
+
+        ventanas(limit, 100, 10, false, false);
+
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void bajaCuandoSubeLaLatencia() {
+        AdaptiveLimit limit = limite(10, 2, 200);
+        ventanas(limit, 50, 10, false, true);
+        int antes = limit.getLimit();
+
+        ventanas(limit, 20, 50, false, true);
+
+        assertThat(limit.getLimit()).isLessThan(antes / 2);
+    }
+
+    @Test
+    void bajaMultiplicativamenteConErrores() {
+        AdaptiveLimit limit = limite(40, 2, 200);
+
+        ventanas(limit, 5, 10, true, true);
+
+        // 40 * 0.9^5
+        assertThat(limit.getLimit()).isEqualTo(23);
+    }
+
+    /**
+     * El reloj simulado arranca después de crear el límite, que toma el inicio de su primera ventana.
+     */
+    private AdaptiveLimit limite(int inicial, int minimo, int maximo) {
+        AdaptiveLimit limit = new AdaptiveLimit(inicial, minimo, maximo);
+        now = System.nanoTime();
+        return limit;
+    }
+
+    /**
+     * Simula ventanas completas de respuestas con la latencia indicada.
+     *
+     * @param saturado true si en cada ventana se usa todo el límite
+     */
+    private void ventanas(AdaptiveLimit limit, int cantidad, long latenciaMillis, boolean errores, boolean saturado) {
+        for (int v = 0; v < cantidad; v++) {
+            now += AdaptiveLimit.MIN_WINDOW_NANOS;
+            for (int i = 0; i < AdaptiveLimit.MIN_WINDOW_SAMPLES; i++) {
+                int inflight = saturado ? limit.getLimit() : 1;
+                limit.onSample(now, TimeUnit.MILLISECONDS.toNanos(latenciaMillis), inflight, errores);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package digitalers.repository;
+
+import digitalers.dto.PersonaFiltro;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ejecuta EXPLAIN en H2 sobre el SQL que genera {@link PersonaFilterRepository#filtrar} para
+ * cada combinación de filtros soportada y verifica que la tabla filtrada se lea por índice.
+ *
+ * Los valores de los filtros se renderizan como literales (criteria.value_handling_mode=inline)
+ * para que el plan sea el mismo que H2 elige al ejecutar la consulta.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=digitalers.repository.PersonaFilterPlanTests$CapturingInspector",
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline"
+})
+class PersonaFilterPlanTests {
+
+    @Autowired
+    private PersonaRepository personaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+
+    static Stream<Arguments> filtros() {
+        return Stream.of(
+                Arguments.of(new PersonaFiltro("Juan", null, null, null, null), "PERSONAS", "IDX_PERSONAS_NOMBRE_EDAD"),
+                Arguments.of(new PersonaFiltro("Juan", 18, 40, null, null), "PERSONAS", "IDX_PERSONAS_NOMBRE_EDAD"),
+                Arguments.of(new PersonaFiltro(null, 18, 40, null, null), "PERSONAS", "IDX_PERSONAS_EDAD"),
+                Arguments.of(new PersonaFiltro(null, 18, null, null, null), "PERSONAS", "IDX_PERSONAS_EDAD"),
+                Arguments.of(new PersonaFiltro(null, null, null, "Centro", null), "DIRECCIONES", "IDX_DIRECCIONES_BARRIO_CALLE"),
+                Arguments.of(new PersonaFiltro(null, null, null, "Centro", "San Martin"), "DIRECCIONES", "IDX_DIRECCIONES_BARRIO_CALLE"),
+                Arguments.of(new PersonaFiltro(null, null, null, null, "San Martin"), "DIRECCIONES", "IDX_DIRECCIONES_CALLE"));
+    }
+
+    @BeforeEach
+    void setUp() {
+        CapturingInspector.SQL.clear();
+    }
+
+    @ParameterizedTest
+    @MethodSource("filtros")
+    void filtroUsaIndice(PersonaFiltro filtro, String tabla, String indice) {
+        personaRepository.filtrar(PersonaSpecifications.de(filtro), PageRequest.of(0, 10));
+
+        assertThat(CapturingInspector.SQL).hasSize(1);
+        String plan = explain(CapturingInspector.SQL.get(0));
+
+        assertThat(plan).contains("PUBLIC." + indice);
+        assertThat(plan).doesNotContain("PUBLIC." + tabla + ".tableScan");
+    }
+
+    /**
+     * Los únicos parámetros que quedan en el SQL son los de OFFSET/FETCH.
+     */
+    private String explain(String sql) {
+        return jdbcTemplate.execute((java.sql.Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setInt(i, 10);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }
+        });
+    }
+}
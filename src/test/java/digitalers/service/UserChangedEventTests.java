@@ -0,0 +1,63 @@
+package digitalers.service;
+
+import digitalers.auth.RefreshTokenStore;
+import digitalers.auth.SecurityStampRegistry;
+import digitalers.service.impl.CachingUserDetailService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Publicar un {@link UserChangedEvent} invalida el cache de usuarios, rota el security stamp y
+ * revoca los refresh tokens emitidos hasta ese momento.
+ */
+@SpringBootTest
+class UserChangedEventTests {
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private CachingUserDetailService userDetailService;
+
+    @Autowired
+    private SecurityStampRegistry securityStampRegistry;
+
+    @Autowired
+    private RefreshTokenStore refreshTokenStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void invalidaLaInformacionGuardadaDelUsuario() {
+        userDetailService.loadUserByUsername("admin");
+        userDetailService.loadUserByUsername("admin");
+        double hits = contador("users.cache.hits");
+        double misses = contador("users.cache.misses");
+        double evictions = contador("users.cache.evictions");
+        long stamp = securityStampRegistry.current("admin");
+        long emitido = System.currentTimeMillis();
+
+        publisher.publishEvent(new UserChangedEvent("admin"));
+
+        assertThat(contador("users.cache.evictions")).isEqualTo(evictions + 1);
+        userDetailService.loadUserByUsername("admin");
+        assertThat(contador("users.cache.hits")).isEqualTo(hits);
+        assertThat(contador("users.cache.misses")).isEqualTo(misses + 1);
+        assertThat(meterRegistry.get("users.cache.size").gauge().value()).isGreaterThanOrEqualTo(1);
+
+        assertThat(securityStampRegistry.current("admin")).isNotEqualTo(stamp);
+        assertThat(refreshTokenStore.isRevoked(UUID.randomUUID().toString(), "admin", emitido)).isTrue();
+    }
+
+    private double contador(String nombre) {
+        return meterRegistry.get(nombre).functionCounter().count();
+    }
+}
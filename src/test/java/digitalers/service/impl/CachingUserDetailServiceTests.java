@@ -0,0 +1,101 @@
+package digitalers.service.impl;
+
+import digitalers.datasource.ReplicaLagMonitor;
+import digitalers.entity.UserApi;
+import digitalers.service.UserDetailService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Una invalidación que llega mientras se carga el usuario impide guardar la carga en curso.
+ */
+class CachingUserDetailServiceTests {
+
+    @Test
+    void unaCargaConcurrenteConUnaInvalidacionNoSeGuarda() throws Exception {
+        AtomicReference<String> rol = new AtomicReference<>("ROLE_ADMIN");
+        CountDownLatch consultando = new CountDownLatch(1);
+        CountDownLatch invalidado = new CountDownLatch(1);
+        BloqueanteUserDetailService delegate = new BloqueanteUserDetailService(rol, consultando, invalidado);
+        CachingUserDetailService cache = cache(delegate);
+
+        // La primera carga lee el rol viejo y queda detenida antes de volver al cache
+        CompletableFuture<User> carga = CompletableFuture.supplyAsync(() -> cache.loadUserByUsername("admin"));
+        assertThat(consultando.await(5, TimeUnit.SECONDS)).isTrue();
+        rol.set("ROLE_USER");
+        cache.evict("admin");
+        invalidado.countDown();
+        assertThat(carga.get(5, TimeUnit.SECONDS).getAuthorities())
+                .containsExactly(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+        // La carga vieja no quedó en el cache: la siguiente consulta ve el cambio
+        assertThat(cache.loadUserByUsername("admin").getAuthorities())
+                .containsExactly(new SimpleGrantedAuthority("ROLE_USER"));
+        assertThat(cache.loadUserByUsername("admin").getAuthorities())
+                .containsExactly(new SimpleGrantedAuthority("ROLE_USER"));
+        assertThat(cache.stats().misses()).isEqualTo(2);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+    }
+
+    private static CachingUserDetailService cache(UserDetailService delegate) {
+        CachingUserDetailService cache = new CachingUserDetailService();
+        ReflectionTestUtils.setField(cache, "delegate", delegate);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "replicaLag", new ReplicaLagMonitor());
+        ReflectionTestUtils.setField(cache, "maxSize", 10);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+        ReflectionTestUtils.invokeMethod(cache, "init");
+        return cache;
+    }
+
+    /**
+     * Devuelve el usuario con el rol actual; la primera consulta espera a que se invalide el cache.
+     */
+    private static final class BloqueanteUserDetailService implements UserDetailService {
+
+        private final AtomicReference<String> rol;
+        private final CountDownLatch consultando;
+        private final CountDownLatch invalidado;
+
+        BloqueanteUserDetailService(AtomicReference<String> rol, CountDownLatch consultando, CountDownLatch invalidado) {
+            this.rol = rol;
+            this.consultando = consultando;
+            this.invalidado = invalidado;
+        }
+
+        @Override
+        public User loadUserByUsername(String username) {
+            User user = new User(username, "hash", List.of(new SimpleGrantedAuthority(rol.get())));
+            if (consultando.getCount() > 0) {
+                consultando.countDown();
+                try {
+                    invalidado.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return user;
+        }
+
+        @Override
+        public UserApi findUserByUsername(String username) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public User toUser(UserApi usuario) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}